@@ -0,0 +1,89 @@
+package com.bitesharing.util;
+
+import com.bitesharing.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU per authenticated request in the JWT filter. {@code legacyFilterPath} reproduces the filter
+ * before single-pass verification: extractUsername, validateToken (two more parses) and
+ * extractRole, each deriving the key and building a parser. The verify benchmarks go through
+ * {@link JwtUtil#verify(String)} with every lookup hitting or missing the token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerifyBenchmark {
+
+    private static final String SECRET = "YourSecretKeyForJWTTokenGeneration12345678901234567890";
+    private static final long EXPIRATION_MS = 86_400_000L;
+
+    private JwtUtil cached;
+    private JwtUtil uncached;
+    private String token;
+    private String[] missTokens;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cached = new JwtUtil(SECRET, EXPIRATION_MS, 10_000, 300_000);
+        // A one-entry cache cycled over two tokens never hits
+        uncached = new JwtUtil(SECRET, EXPIRATION_MS, 1, 300_000);
+        User user = new User();
+        user.setUsername("benchmark-user");
+        user.setUserType(User.UserType.VOLUNTEER);
+        token = cached.generateToken(user);
+        user.setUsername("benchmark-user-2");
+        missTokens = new String[]{token, cached.generateToken(user)};
+        cached.verify(token);
+    }
+
+    @Benchmark
+    public void legacyFilterPath(Blackhole blackhole) {
+        String username = legacyClaims(token).getSubject();
+        boolean valid = username.equals(legacyClaims(token).getSubject())
+                && !legacyClaims(token).getExpiration().before(new Date());
+        blackhole.consume(valid);
+        blackhole.consume(legacyClaims(token).get("role", String.class));
+    }
+
+    @Benchmark
+    public Optional<JwtUtil.VerifiedToken> verifyCacheHit() {
+        return cached.verify(token);
+    }
+
+    @Benchmark
+    public Optional<JwtUtil.VerifiedToken> verifyCacheMiss() {
+        next ^= 1;
+        return uncached.verify(missTokens[next]);
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,51 @@
+package com.bitesharing.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time per plan for random stops spread over a city-sized box. The target for a volunteer's
+ * route is under 100 ms at 50+ stops.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutePlannerBenchmark {
+
+    private static final double START_LAT = 18.60;
+    private static final double START_LON = 73.90;
+
+    @Param({"50", "100", "200"})
+    private int stops;
+
+    private double[] latitudes;
+    private double[] longitudes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(stops);
+        latitudes = random.doubles(stops, 18.50, 18.70).toArray();
+        longitudes = random.doubles(stops, 73.80, 74.00).toArray();
+    }
+
+    @Benchmark
+    public int[] plan() {
+        return RoutePlanner.order(START_LAT, START_LON, latitudes, longitudes);
+    }
+}
@@ -8,6 +8,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -16,13 +17,20 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class DataInitializer implements CommandLineRunner {
 
+    private static final int ID_ALLOCATION_SIZE = 50;
+
     private final BadgeRepository badgeRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
 
     @Override
     public void run(String... args) {
         try {
+            // Rows inserted while these tables used AUTO_INCREMENT must not collide with pooled ids
+            alignIdSequence("donations_seq", "donations");
+            alignIdSequence("points_history_seq", "points_history");
+
             // Initialize badges if they don't exist
             if (badgeRepository.count() == 0) {
                 log.info("Initializing badges...");
@@ -73,5 +81,10 @@ public class DataInitializer implements CommandLineRunner {
             throw new RuntimeException("Failed to initialize application data", e);
         }
     }
-}
 
+    private void alignIdSequence(String sequenceTable, String entityTable) {
+        int updated = jdbcTemplate.update("UPDATE " + sequenceTable + " SET next_val = GREATEST(next_val, " +
+                "(SELECT COALESCE(MAX(id), 0) + ? FROM " + entityTable + "))", ID_ALLOCATION_SIZE + 1);
+        log.debug("Aligned id sequence {} with {} ({} row)", sequenceTable, entityTable, updated);
+    }
+}
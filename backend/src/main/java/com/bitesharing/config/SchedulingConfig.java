@@ -0,0 +1,36 @@
+package com.bitesharing.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Two schedulers: the tracking write-behind flush and fan-out drain run every few hundred
+ * milliseconds and get their own threads, so compaction, outbox and expiry jobs on the general
+ * pool can never hold back GPS persistence.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    public static final String TRACKING_SCHEDULER = "trackingScheduler";
+
+    // Named taskScheduler so @Scheduled picks it as the default over the STOMP broker's scheduler
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${spring.task.scheduling.pool.size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduling-");
+        return scheduler;
+    }
+
+    @Bean(TRACKING_SCHEDULER)
+    public ThreadPoolTaskScheduler trackingScheduler(@Value("${tracking.scheduler.pool-size:2}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("tracking-");
+        return scheduler;
+    }
+}
@@ -1,15 +1,32 @@
 package com.bitesharing.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
-import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.config.annotation.DelegatingWebSocketMessageBrokerConfiguration;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
 
 @Configuration
-@EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Value("${websocket.outbound.pool-size:8}")
+    private int outboundPoolSize;
+
+    @Value("${websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${websocket.send-buffer-limit-bytes:65536}")
+    private int sendBufferLimitBytes;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic", "/queue");
@@ -22,5 +39,46 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOrigins("http://localhost:3000")
                 .withSockJS();
     }
-}
 
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.executor(clientOutboundExecutor());
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs);
+        registration.setSendBufferSizeLimit(sendBufferLimitBytes);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor clientOutboundExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(outboundPoolSize);
+        executor.setMaxPoolSize(outboundPoolSize);
+        executor.setThreadNamePrefix("ws-outbound-");
+        executor.setAllowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Stands in for {@code @EnableWebSocketMessageBroker} so the session decorator can be swapped.
+     * A slow subscriber loses its oldest buffered frames instead of being disconnected or holding
+     * an outbound thread; position frames are superseded by the next one anyway.
+     */
+    @Configuration(proxyBeanMethods = false)
+    static class BrokerConfiguration extends DelegatingWebSocketMessageBrokerConfiguration {
+
+        @Override
+        protected SubProtocolWebSocketHandler createSubProtocolWebSocketHandler(
+                SubscribableChannel clientInboundChannel, SubscribableChannel clientOutboundChannel) {
+            return new SubProtocolWebSocketHandler(clientInboundChannel, clientOutboundChannel) {
+                @Override
+                protected WebSocketSession decorateSession(WebSocketSession session) {
+                    return new ConcurrentWebSocketSessionDecorator(session, getSendTimeLimit(),
+                            getSendBufferSizeLimit(), ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP);
+                }
+            };
+        }
+    }
+}
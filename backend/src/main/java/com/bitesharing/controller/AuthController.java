@@ -4,6 +4,7 @@ import com.bitesharing.dto.AuthRequest;
 import com.bitesharing.dto.AuthResponse;
 import com.bitesharing.dto.ErrorResponse;
 import com.bitesharing.dto.RegisterRequest;
+import com.bitesharing.exception.PasswordHashingBusyException;
 import com.bitesharing.service.AuthService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataAccessException;
@@ -24,6 +25,10 @@ public class AuthController {
         try {
             AuthResponse response = authService.register(request);
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "1")
+                    .body(new ErrorResponse(e.getMessage(), "AUTH_BUSY"));
         } catch (DataAccessException e) {
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
                     .body(new ErrorResponse("Database connection error. Please check your database configuration.", "DATABASE_ERROR"));
@@ -41,6 +46,10 @@ public class AuthController {
         try {
             AuthResponse response = authService.login(request);
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "1")
+                    .body(new ErrorResponse(e.getMessage(), "AUTH_BUSY"));
         } catch (DataAccessException e) {
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
                     .body(new ErrorResponse("Database connection error. Please check your database configuration.", "DATABASE_ERROR"));
@@ -3,14 +3,22 @@ package com.bitesharing.controller;
 import com.bitesharing.dto.ErrorResponse;
 import com.bitesharing.model.Donation;
 import com.bitesharing.service.DonationService;
+import com.bitesharing.util.GeoUtils;
+import com.bitesharing.util.NdjsonWriter;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -20,8 +28,16 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:3000")
 public class DonationController {
 
+    private static final double MAX_NEARBY_RADIUS_KM = 50.0;
+    private static final int MAX_NEARBY_LIMIT = 100;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_SEARCH_LIMIT = 100;
+
     private final DonationService donationService;
 
+    @Value("${donation.batch.max-items:500}")
+    private int maxBatchItems;
+
     @PostMapping
     public ResponseEntity<?> createDonation(
             @RequestBody Donation donation,
@@ -47,6 +63,34 @@ public class DonationController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<?> createDonations(
+            @RequestBody List<Donation> donations,
+            @RequestParam Long donorId) {
+        try {
+            if (donations.size() > maxBatchItems) {
+                return ResponseEntity.badRequest()
+                        .body(new ErrorResponse("A batch may contain at most " + maxBatchItems + " donations", "BATCH_TOO_LARGE"));
+            }
+            return ResponseEntity.ok(donationService.createDonations(donations, donorId));
+        } catch (DataIntegrityViolationException e) {
+            // A bad item (missing required field, oversized value) is the client's error, not an outage
+            log.debug("Rejected donation batch: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("One or more donations are missing required fields or have invalid values", "DONATION_ERROR"));
+        } catch (DataAccessException e) {
+            log.error("Database error creating donation batch: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ErrorResponse("Database connection error. Please check your database configuration.", "DATABASE_ERROR"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse(e.getMessage(), "DONATION_ERROR"));
+        } catch (Exception e) {
+            log.error("Error creating donation batch: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("An error occurred while creating donations: " + e.getMessage(), "INTERNAL_ERROR"));
+        }
+    }
 
     @GetMapping
     public ResponseEntity<?> getAllDonations() {
@@ -65,6 +109,60 @@ public class DonationController {
         }
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<?> getDonationPage(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") Integer size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            if (size <= 0 || size > MAX_PAGE_SIZE) {
+                return ResponseEntity.badRequest()
+                        .body(new ErrorResponse("size must be between 1 and " + MAX_PAGE_SIZE, "INVALID_PAGE_SIZE"));
+            }
+            return ResponseEntity.ok(donationService.getDonationPage(
+                    cursor, size, parseStatus(status), parseType(type), from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Invalid status or type filter", "INVALID_FILTER"));
+        } catch (DataAccessException e) {
+            log.error("Database error fetching donation page: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ErrorResponse("Database connection error. Please check your database configuration.", "DATABASE_ERROR"));
+        } catch (Exception e) {
+            log.error("Error fetching donation page: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("An error occurred while fetching donations", "INTERNAL_ERROR"));
+        }
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<?> streamDonations(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        Donation.DonationStatus donationStatus;
+        Donation.DonationType donationType;
+        try {
+            donationStatus = parseStatus(status);
+            donationType = parseType(type);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Invalid status or type filter", "INVALID_FILTER"));
+        }
+
+        StreamingResponseBody body = out -> {
+            long written = donationService.streamDonations(donationStatus, donationType, from, to, out);
+            log.debug("Streamed {} donations", written);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonWriter.CONTENT_TYPE))
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getDonationById(@PathVariable Long id) {
         try {
@@ -115,6 +213,56 @@ public class DonationController {
         }
     }
 
+    @GetMapping("/nearby")
+    public ResponseEntity<?> getNearbyDonations(
+            @RequestParam Double latitude,
+            @RequestParam Double longitude,
+            @RequestParam(defaultValue = "5") Double radiusKm,
+            @RequestParam(defaultValue = "20") Integer limit,
+            @RequestParam(required = false) String type) {
+        try {
+            if (!GeoUtils.isValidCoordinate(latitude, longitude)) {
+                return ResponseEntity.badRequest()
+                        .body(new ErrorResponse("Invalid coordinates", "INVALID_COORDINATES"));
+            }
+            if (radiusKm <= 0 || radiusKm > MAX_NEARBY_RADIUS_KM || limit <= 0 || limit > MAX_NEARBY_LIMIT) {
+                return ResponseEntity.badRequest()
+                        .body(new ErrorResponse("radiusKm must be in (0, " + MAX_NEARBY_RADIUS_KM
+                                + "] and limit in [1, " + MAX_NEARBY_LIMIT + "]", "INVALID_RANGE"));
+            }
+            return ResponseEntity.ok(donationService.findNearbyDonations(latitude, longitude, radiusKm, limit, parseType(type)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Invalid donation type: " + type, "INVALID_TYPE"));
+        } catch (Exception e) {
+            log.error("Error fetching nearby donations: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("An error occurred while fetching nearby donations", "INTERNAL_ERROR"));
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchDonations(
+            @RequestParam String q,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "20") Integer limit) {
+        try {
+            if (limit <= 0 || limit > MAX_SEARCH_LIMIT) {
+                return ResponseEntity.badRequest()
+                        .body(new ErrorResponse("limit must be between 1 and " + MAX_SEARCH_LIMIT, "INVALID_LIMIT"));
+            }
+            return ResponseEntity.ok(donationService.searchDonations(q, parseType(type), parseStatus(status), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Invalid status or type filter", "INVALID_FILTER"));
+        } catch (Exception e) {
+            log.error("Error searching donations: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("An error occurred while searching donations", "INTERNAL_ERROR"));
+        }
+    }
+
     @PutMapping("/{id}/status")
     public ResponseEntity<?> updateDonationStatus(
             @PathVariable Long id,
@@ -133,5 +281,12 @@ public class DonationController {
                     .body(new ErrorResponse("An error occurred while updating donation status", "INTERNAL_ERROR"));
         }
     }
-}
 
+    private Donation.DonationStatus parseStatus(String status) {
+        return status != null ? Donation.DonationStatus.valueOf(status.toUpperCase()) : null;
+    }
+
+    private Donation.DonationType parseType(String type) {
+        return type != null ? Donation.DonationType.valueOf(type.toUpperCase()) : null;
+    }
+}
@@ -1,11 +1,13 @@
 package com.bitesharing.controller;
 
 import com.bitesharing.dto.ErrorResponse;
+import com.bitesharing.exception.UnsupportedImageException;
+import com.bitesharing.service.ImageStorageService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -16,9 +18,8 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.UUID;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @RestController
@@ -27,8 +28,7 @@ import java.util.UUID;
 @CrossOrigin(origins = "http://localhost:3000")
 public class FileUploadController {
 
-    @Value("${file.upload.dir:./uploads}")
-    private String uploadDir;
+    private final ImageStorageService imageStorageService;
 
     @PostMapping("/upload")
     public ResponseEntity<?> uploadFile(@RequestParam("file") MultipartFile file) {
@@ -45,28 +45,16 @@ public class FileUploadController {
                         .body(new ErrorResponse("Only image files are allowed", "INVALID_FILE_TYPE"));
             }
 
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String extension = originalFilename != null && originalFilename.contains(".") 
-                    ? originalFilename.substring(originalFilename.lastIndexOf(".")) 
-                    : "";
-            String filename = UUID.randomUUID().toString() + extension;
-            Path filePath = uploadPath.resolve(filename);
-
-            // Save file
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            String filename = imageStorageService.store(file);
 
             // Return URL
             String fileUrl = "/api/files/" + filename;
             log.info("File uploaded successfully: {}", filename);
             
             return ResponseEntity.ok(new FileUploadResponse(fileUrl, filename));
+        } catch (UnsupportedImageException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse(e.getMessage(), "INVALID_FILE_TYPE"));
         } catch (IOException e) {
             log.error("Error uploading file: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -75,20 +63,31 @@ public class FileUploadController {
     }
 
     @GetMapping("/{filename:.+}")
-    public ResponseEntity<Resource> getFile(@PathVariable String filename) {
+    public ResponseEntity<Resource> getFile(@PathVariable String filename,
+                                            @RequestParam(defaultValue = "original") String size) {
+        ImageStorageService.Size variant;
         try {
-            Path filePath = Paths.get(uploadDir).resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists() && resource.isReadable()) {
-                String contentType = Files.probeContentType(filePath);
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType != null ? contentType : "application/octet-stream"))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                        .body(resource);
-            } else {
+            variant = ImageStorageService.Size.valueOf(size.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            ImageStorageService.Resolved resolved = imageStorageService.resolve(filename, variant);
+            if (resolved == null) {
                 return ResponseEntity.notFound().build();
             }
+            Path filePath = resolved.path();
+            Resource resource = new UrlResource(filePath.toUri());
+            String contentType = Files.probeContentType(filePath);
+            // Content-addressed bytes never change; a variant still being rendered is served as the original
+            boolean immutable = ImageStorageService.isContentAddressed(filename) && !resolved.fallback();
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(contentType != null ? contentType : "application/octet-stream"))
+                    .cacheControl(immutable
+                            ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable()
+                            : CacheControl.noCache())
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
+                    .body(resource);
         } catch (Exception e) {
             log.error("Error serving file: {}", e.getMessage(), e);
             return ResponseEntity.notFound().build();
@@ -1,20 +1,26 @@
 package com.bitesharing.controller;
 
 import com.bitesharing.dto.ErrorResponse;
+import com.bitesharing.dto.FreshnessRatingRow;
+import com.bitesharing.dto.FreshnessSummary;
+import com.bitesharing.exception.AlreadyRatedException;
 import com.bitesharing.model.FreshnessRating;
 import com.bitesharing.repository.DonationRepository;
 import com.bitesharing.repository.FreshnessRatingRepository;
 import com.bitesharing.repository.UserRepository;
+import com.bitesharing.service.FreshnessService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Slf4j
 @RestController
@@ -23,6 +29,9 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "http://localhost:3000")
 public class FreshnessController {
 
+    private static final int MAX_BATCH_SUMMARIES = 200;
+
+    private final FreshnessService freshnessService;
     private final FreshnessRatingRepository freshnessRatingRepository;
     private final DonationRepository donationRepository;
     private final UserRepository userRepository;
@@ -39,33 +48,26 @@ public class FreshnessController {
                         .body(new ErrorResponse("Rating must be between 1 and 5", "INVALID_RATING"));
             }
 
-            // Check if user already rated this donation
-            if (freshnessRatingRepository.existsByDonationIdAndRatedById(donationId, userId)) {
-                return ResponseEntity.badRequest()
-                        .body(new ErrorResponse("You have already rated this donation", "ALREADY_RATED"));
-            }
+            FreshnessRatingRow saved = freshnessService.rate(donationId, userId, rating, comment);
+            log.info("Freshness rating created: donationId={}, userId={}, rating={}", donationId, userId, rating);
 
-            // Validate donation and user exist
+            return ResponseEntity.ok(saved);
+        } catch (AlreadyRatedException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("You have already rated this donation", "ALREADY_RATED"));
+        } catch (DataIntegrityViolationException e) {
+            // Only a failed insert pays for these lookups, to say which reference was missing
             if (!donationRepository.existsById(donationId)) {
                 return ResponseEntity.badRequest()
                         .body(new ErrorResponse("Donation not found", "DONATION_NOT_FOUND"));
             }
-
             if (!userRepository.existsById(userId)) {
                 return ResponseEntity.badRequest()
                         .body(new ErrorResponse("User not found", "USER_NOT_FOUND"));
             }
-
-            FreshnessRating freshnessRating = new FreshnessRating();
-            freshnessRating.setDonation(donationRepository.findById(donationId).orElse(null));
-            freshnessRating.setRatedBy(userRepository.findById(userId).orElse(null));
-            freshnessRating.setRating(rating);
-            freshnessRating.setComment(comment);
-
-            FreshnessRating saved = freshnessRatingRepository.save(freshnessRating);
-            log.info("Freshness rating created: donationId={}, userId={}, rating={}", donationId, userId, rating);
-
-            return ResponseEntity.ok(saved);
+            log.error("Error creating freshness rating: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Failed to create freshness rating: " + e.getMessage(), "RATING_ERROR"));
         } catch (Exception e) {
             log.error("Error creating freshness rating: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -77,17 +79,12 @@ public class FreshnessController {
     public ResponseEntity<?> getFreshnessRatings(@PathVariable Long donationId) {
         try {
             List<FreshnessRating> ratings = freshnessRatingRepository.findByDonationIdOrderByCreatedAtDesc(donationId);
-            
-            // Calculate average rating
-            double averageRating = ratings.stream()
-                    .mapToInt(FreshnessRating::getRating)
-                    .average()
-                    .orElse(0.0);
+            FreshnessSummary summary = freshnessService.getSummary(donationId);
 
             Map<String, Object> response = new HashMap<>();
             response.put("ratings", ratings);
-            response.put("averageRating", Math.round(averageRating * 10.0) / 10.0);
-            response.put("totalRatings", ratings.size());
+            response.put("averageRating", summary.getAverageRating());
+            response.put("totalRatings", summary.getTotalRatings());
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -100,35 +97,27 @@ public class FreshnessController {
     @GetMapping("/donation/{donationId}/summary")
     public ResponseEntity<?> getFreshnessSummary(@PathVariable Long donationId) {
         try {
-            List<FreshnessRating> ratings = freshnessRatingRepository.findByDonationId(donationId);
-            
-            if (ratings.isEmpty()) {
-                Map<String, Object> emptyResponse = new HashMap<>();
-                emptyResponse.put("averageRating", 0.0);
-                emptyResponse.put("totalRatings", 0);
-                emptyResponse.put("ratingDistribution", Map.of());
-                return ResponseEntity.ok(emptyResponse);
-            }
-
-            double averageRating = ratings.stream()
-                    .mapToInt(FreshnessRating::getRating)
-                    .average()
-                    .orElse(0.0);
-
-            Map<Integer, Long> distribution = ratings.stream()
-                    .collect(Collectors.groupingBy(FreshnessRating::getRating, Collectors.counting()));
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("averageRating", Math.round(averageRating * 10.0) / 10.0);
-            response.put("totalRatings", ratings.size());
-            response.put("ratingDistribution", distribution);
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(freshnessService.getSummary(donationId));
         } catch (Exception e) {
             log.error("Error fetching freshness summary: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ErrorResponse("Failed to fetch freshness summary: " + e.getMessage(), "FETCH_ERROR"));
         }
     }
-}
 
+    @GetMapping("/summaries")
+    public ResponseEntity<?> getFreshnessSummaries(@RequestParam List<Long> donationIds) {
+        Set<Long> ids = new LinkedHashSet<>(donationIds);
+        if (ids.size() > MAX_BATCH_SUMMARIES) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("At most " + MAX_BATCH_SUMMARIES + " donations per request", "TOO_MANY_IDS"));
+        }
+        try {
+            return ResponseEntity.ok(freshnessService.getSummaries(ids));
+        } catch (Exception e) {
+            log.error("Error fetching freshness summaries: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Failed to fetch freshness summaries: " + e.getMessage(), "FETCH_ERROR"));
+        }
+    }
+}
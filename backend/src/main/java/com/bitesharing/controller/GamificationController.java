@@ -1,13 +1,21 @@
 package com.bitesharing.controller;
 
+import com.bitesharing.dto.ErrorResponse;
+import com.bitesharing.dto.LeaderboardEntry;
 import com.bitesharing.model.PointsHistory;
 import com.bitesharing.model.UserBadge;
 import com.bitesharing.model.UserPoints;
+import com.bitesharing.service.GamificationOutboxWorker;
 import com.bitesharing.service.GamificationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
 import java.util.List;
 
 @RestController
@@ -16,7 +24,11 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:3000")
 public class GamificationController {
 
+    private static final int MAX_LEADERBOARD_PAGE = 100;
+    private static final int MAX_RANGE_DAYS = 366;
+
     private final GamificationService gamificationService;
+    private final GamificationOutboxWorker gamificationOutboxWorker;
 
     @GetMapping("/points/{userId}")
     public ResponseEntity<UserPoints> getUserPoints(@PathVariable Long userId) {
@@ -29,13 +41,89 @@ public class GamificationController {
     }
 
     @GetMapping("/leaderboard")
-    public ResponseEntity<List<UserPoints>> getLeaderboard() {
-        return ResponseEntity.ok(gamificationService.getLeaderboard());
+    public ResponseEntity<List<LeaderboardEntry>> getLeaderboard(
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (offset < 0 || limit < 1 || limit > MAX_LEADERBOARD_PAGE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(gamificationService.getLeaderboard(offset, limit));
+    }
+
+    @GetMapping("/leaderboard/weekly")
+    public ResponseEntity<List<LeaderboardEntry>> getWeeklyLeaderboard(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        LocalDate today = LocalDate.now();
+        return getPeriodLeaderboard(today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)), today, page, size);
+    }
+
+    @GetMapping("/leaderboard/monthly")
+    public ResponseEntity<List<LeaderboardEntry>> getMonthlyLeaderboard(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        LocalDate today = LocalDate.now();
+        return getPeriodLeaderboard(today.withDayOfMonth(1), today, page, size);
+    }
+
+    @GetMapping("/leaderboard/range")
+    public ResponseEntity<List<LeaderboardEntry>> getRangeLeaderboard(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) > MAX_RANGE_DAYS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return getPeriodLeaderboard(from, to, page, size);
+    }
+
+    @GetMapping("/leaderboard/rank/{userId}")
+    public ResponseEntity<LeaderboardEntry> getLeaderboardRank(@PathVariable Long userId) {
+        LeaderboardEntry entry = gamificationService.getLeaderboardRank(userId);
+        return entry != null ? ResponseEntity.ok(entry) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/leaderboard/around/{userId}")
+    public ResponseEntity<List<LeaderboardEntry>> getLeaderboardAround(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "5") int radius) {
+        if (radius < 0 || radius > MAX_LEADERBOARD_PAGE / 2) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(gamificationService.getLeaderboardAround(userId, radius));
     }
 
     @GetMapping("/history/{userId}")
     public ResponseEntity<List<PointsHistory>> getPointsHistory(@PathVariable Long userId) {
         return ResponseEntity.ok(gamificationService.getPointsHistory(userId));
     }
-}
 
+    @GetMapping("/history/{userId}/page")
+    public ResponseEntity<?> getPointsHistoryPage(
+            @PathVariable Long userId,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        if (size < 1 || size > MAX_LEADERBOARD_PAGE) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("size must be between 1 and " + MAX_LEADERBOARD_PAGE, "INVALID_PAGE_SIZE"));
+        }
+        try {
+            return ResponseEntity.ok(gamificationService.getPointsHistoryPage(userId, cursor, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage(), "INVALID_CURSOR"));
+        }
+    }
+
+    @GetMapping("/outbox/stats")
+    public ResponseEntity<?> getOutboxStats() {
+        return ResponseEntity.ok(gamificationOutboxWorker.getStats());
+    }
+
+    private ResponseEntity<List<LeaderboardEntry>> getPeriodLeaderboard(LocalDate from, LocalDate to, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_LEADERBOARD_PAGE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(gamificationService.getPeriodLeaderboard(from, to, page, size));
+    }
+}
@@ -1,23 +1,36 @@
 package com.bitesharing.controller;
 
 import com.bitesharing.dto.ErrorResponse;
+import com.bitesharing.dto.RequestRow;
+import com.bitesharing.exception.DonationAlreadyClaimedException;
 import com.bitesharing.model.Request;
 import com.bitesharing.service.RequestService;
+import com.bitesharing.service.RoutePlanningService;
+import com.bitesharing.util.NdjsonWriter;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/requests")
 @RequiredArgsConstructor
 @CrossOrigin(origins = "http://localhost:3000")
 public class RequestController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final RequestService requestService;
+    private final RoutePlanningService routePlanningService;
 
     @PostMapping
     public ResponseEntity<?> createRequest(
@@ -30,6 +43,9 @@ public class RequestController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body(new ErrorResponse("Invalid requester type: " + requesterType, "INVALID_TYPE"));
+        } catch (DonationAlreadyClaimedException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorResponse(e.getMessage(), "DONATION_ALREADY_CLAIMED"));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest()
                     .body(new ErrorResponse(e.getMessage(), "REQUEST_ERROR"));
@@ -52,6 +68,58 @@ public class RequestController {
         }
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<?> getRequestPage(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") Integer size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String requesterType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            if (size <= 0 || size > MAX_PAGE_SIZE) {
+                return ResponseEntity.badRequest()
+                        .body(new ErrorResponse("size must be between 1 and " + MAX_PAGE_SIZE, "INVALID_PAGE_SIZE"));
+            }
+            return ResponseEntity.ok(requestService.getRequestPage(
+                    cursor, size, parseStatus(status), parseRequesterType(requesterType), from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Invalid status or requester type filter", "INVALID_FILTER"));
+        } catch (DataAccessException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ErrorResponse("Database connection error. Please check your database configuration.", "DATABASE_ERROR"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("An error occurred while fetching requests: " + e.getMessage(), "INTERNAL_ERROR"));
+        }
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<?> streamRequests(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String requesterType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        Request.RequestStatus requestStatus;
+        Request.RequesterType type;
+        try {
+            requestStatus = parseStatus(status);
+            type = parseRequesterType(requesterType);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Invalid status or requester type filter", "INVALID_FILTER"));
+        }
+
+        StreamingResponseBody body = out -> {
+            long written = requestService.streamRequests(requestStatus, type, from, to, out);
+            log.debug("Streamed {} requests", written);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonWriter.CONTENT_TYPE))
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getRequestById(@PathVariable Long id) {
         try {
@@ -83,6 +151,59 @@ public class RequestController {
         }
     }
 
+    @GetMapping("/requester/{requesterId}/rows")
+    public ResponseEntity<List<RequestRow>> getRequestRowsByRequester(@PathVariable Long requesterId) {
+        try {
+            return ResponseEntity.ok(requestService.getRequestRowsByRequester(requesterId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/volunteer/{volunteerId}/rows")
+    public ResponseEntity<List<RequestRow>> getRequestRowsByVolunteer(@PathVariable Long volunteerId) {
+        try {
+            return ResponseEntity.ok(requestService.getRequestRowsByVolunteer(volunteerId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/donation/{donationId}")
+    public ResponseEntity<List<Request>> getRequestsByDonation(@PathVariable Long donationId) {
+        try {
+            return ResponseEntity.ok(requestService.getRequestsByDonation(donationId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/donation/{donationId}/rows")
+    public ResponseEntity<List<RequestRow>> getRequestRowsByDonation(@PathVariable Long donationId) {
+        try {
+            return ResponseEntity.ok(requestService.getRequestRowsByDonation(donationId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/volunteer/{volunteerId}/route")
+    public ResponseEntity<?> getVolunteerRoute(
+            @PathVariable Long volunteerId,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude) {
+        try {
+            return ResponseEntity.ok(routePlanningService.planRoute(volunteerId, latitude, longitude));
+        } catch (DataAccessException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ErrorResponse("Database connection error. Please check your database configuration.", "DATABASE_ERROR"));
+        } catch (Exception e) {
+            log.error("Error planning route for volunteer {}: {}", volunteerId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("An error occurred while planning the route", "INTERNAL_ERROR"));
+        }
+    }
+
     @PutMapping("/{id}/assign")
     public ResponseEntity<?> assignVolunteer(
             @PathVariable Long id,
@@ -116,5 +237,12 @@ public class RequestController {
                     .body(new ErrorResponse("An error occurred while updating request status", "INTERNAL_ERROR"));
         }
     }
-}
 
+    private Request.RequestStatus parseStatus(String status) {
+        return status != null ? Request.RequestStatus.valueOf(status.toUpperCase()) : null;
+    }
+
+    private Request.RequesterType parseRequesterType(String requesterType) {
+        return requesterType != null ? Request.RequesterType.valueOf(requesterType.toUpperCase()) : null;
+    }
+}
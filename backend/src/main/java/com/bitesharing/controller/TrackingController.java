@@ -1,15 +1,18 @@
 package com.bitesharing.controller;
 
-import com.bitesharing.model.Tracking;
-import com.bitesharing.repository.RequestRepository;
-import com.bitesharing.repository.TrackingRepository;
-import com.bitesharing.repository.UserRepository;
+import com.bitesharing.dto.ErrorResponse;
+import com.bitesharing.dto.TrackingPoint;
+import com.bitesharing.exception.TrackingBackpressureException;
+import com.bitesharing.service.TrackingBroadcaster;
+import com.bitesharing.service.TrackingIngestionService;
+import com.bitesharing.service.TrajectoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/tracking")
@@ -17,49 +20,48 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:3000")
 public class TrackingController {
 
-    private final TrackingRepository trackingRepository;
-    private final RequestRepository requestRepository;
-    private final UserRepository userRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final TrajectoryService trajectoryService;
+    private final TrackingIngestionService trackingIngestionService;
+    private final TrackingBroadcaster trackingBroadcaster;
 
     @PostMapping
-    public ResponseEntity<Tracking> updateLocation(
+    public ResponseEntity<?> updateLocation(
             @RequestParam Long requestId,
             @RequestParam Long volunteerId,
             @RequestParam Double latitude,
             @RequestParam Double longitude) {
         try {
-            Tracking tracking = new Tracking();
-            tracking.setRequest(requestRepository.findById(requestId)
-                    .orElseThrow(() -> new RuntimeException("Request not found")));
-            tracking.setVolunteer(userRepository.findById(volunteerId)
-                    .orElseThrow(() -> new RuntimeException("Volunteer not found")));
-            tracking.setLatitude(latitude);
-            tracking.setLongitude(longitude);
-
-            tracking = trackingRepository.save(tracking);
-
-            // Send to WebSocket subscribers
-            messagingTemplate.convertAndSend("/topic/tracking/" + requestId, tracking);
-
-            return ResponseEntity.ok(tracking);
+            return ResponseEntity.ok(trackingIngestionService.ingest(requestId, volunteerId, latitude, longitude));
+        } catch (TrackingBackpressureException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "1")
+                    .body(new ErrorResponse(e.getMessage(), "TRACKING_BUSY"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     @GetMapping("/request/{requestId}")
-    public ResponseEntity<List<Tracking>> getTrackingByRequest(@PathVariable Long requestId) {
-        return ResponseEntity.ok(trackingRepository.findByRequestIdOrderByTimestampDesc(requestId));
+    public ResponseEntity<List<TrackingPoint>> getTrackingByRequest(@PathVariable Long requestId) {
+        return ResponseEntity.ok(trajectoryService.getHistory(requestId));
     }
 
     @GetMapping("/request/{requestId}/latest")
-    public ResponseEntity<Tracking> getLatestTracking(@PathVariable Long requestId) {
-        Tracking tracking = trackingRepository.findFirstByRequestIdOrderByTimestampDesc(requestId);
-        if (tracking != null) {
-            return ResponseEntity.ok(tracking);
-        }
-        return ResponseEntity.notFound().build();
+    public ResponseEntity<TrackingPoint> getLatestTracking(@PathVariable Long requestId) {
+        return trackingIngestionService.getLatest(requestId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
-}
 
+    @GetMapping("/ingest/stats")
+    public ResponseEntity<?> getIngestStats() {
+        return ResponseEntity.ok(trackingIngestionService.getStats());
+    }
+
+    @GetMapping("/fanout/metrics")
+    public ResponseEntity<?> getFanoutMetrics() {
+        return ResponseEntity.ok(Map.of(
+                "summary", trackingBroadcaster.getSummary(),
+                "topics", trackingBroadcaster.getMetrics()));
+    }
+}
@@ -0,0 +1,34 @@
+package com.bitesharing.dto;
+
+import com.bitesharing.model.Donation;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DonationRow {
+    private Long id;
+    private Long donorId;
+    private String donorName;
+    private String foodName;
+    private String description;
+    private Integer quantity;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime expiryDate;
+
+    private Donation.DonationType donationType;
+    private Donation.DonationStatus status;
+    private String photoUrl;
+    private Double latitude;
+    private Double longitude;
+    private String address;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,21 @@
+package com.bitesharing.dto;
+
+import com.bitesharing.model.Donation;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpiringDonationMessage {
+    private Long donationId;
+    private String foodName;
+    private Donation.DonationType donationType;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime expiryDate;
+}
@@ -0,0 +1,17 @@
+package com.bitesharing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FreshnessSummary {
+    private Long donationId;
+    private Double averageRating;
+    private Integer totalRatings;
+    private Map<Integer, Integer> ratingDistribution;
+}
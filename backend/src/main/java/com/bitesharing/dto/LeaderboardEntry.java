@@ -0,0 +1,16 @@
+package com.bitesharing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntry {
+    private Integer rank;
+    private Long userId;
+    private String fullName;
+    private Long totalPoints;
+    private Integer level;
+}
@@ -0,0 +1,14 @@
+package com.bitesharing.dto;
+
+import com.bitesharing.model.Donation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyDonation {
+    private Donation donation;
+    private Double distanceKm;
+}
@@ -0,0 +1,24 @@
+package com.bitesharing.dto;
+
+import com.bitesharing.model.PointsHistory;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PointsHistoryRow {
+    private Long id;
+    private Integer points;
+    private String reason;
+    private PointsHistory.RelatedEntityType relatedEntityType;
+    private Long relatedEntityId;
+    private Integer eventCount;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,16 @@
+package com.bitesharing.dto;
+
+import com.bitesharing.model.PointsHistory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PointsRollup {
+    private Long userId;
+    private PointsHistory.RelatedEntityType relatedEntityType;
+    private Long points;
+    private Long events;
+}
@@ -0,0 +1,15 @@
+package com.bitesharing.dto;
+
+import com.bitesharing.model.Request;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RequestAssignment {
+    private Long requestId;
+    private Long volunteerId;
+    private Request.RequestStatus status;
+}
@@ -0,0 +1,34 @@
+package com.bitesharing.dto;
+
+import com.bitesharing.model.Donation;
+import com.bitesharing.model.Request;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RequestRow {
+    private Long id;
+    private Long donationId;
+    private String foodName;
+    private Donation.DonationType donationType;
+    private Long requesterId;
+    private String requesterName;
+    private Request.RequesterType requesterType;
+    private Request.RequestStatus status;
+    private Long assignedVolunteerId;
+    private String assignedVolunteerName;
+    private String pickupAddress;
+    private String deliveryAddress;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,19 @@
+package com.bitesharing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoutePlan {
+    private Long volunteerId;
+    private Double startLatitude;
+    private Double startLongitude;
+    private Double totalDistanceKm;
+    private List<RouteStop> stops;
+    private List<Long> unroutedRequestIds;
+}
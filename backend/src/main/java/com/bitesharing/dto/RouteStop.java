@@ -0,0 +1,21 @@
+package com.bitesharing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteStop {
+    private Long requestId;
+    private StopType type;
+    private Double latitude;
+    private Double longitude;
+    private String address;
+    private Double legDistanceKm;
+
+    public enum StopType {
+        PICKUP, DROPOFF
+    }
+}
@@ -0,0 +1,16 @@
+package com.bitesharing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopicMetrics {
+    private String destination;
+    private Double sendsPerSecond;
+    private Long sent;
+    private Long dropped;
+    private Integer queueDepth;
+}
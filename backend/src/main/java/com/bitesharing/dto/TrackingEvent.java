@@ -0,0 +1,40 @@
+package com.bitesharing.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * ETA and arrival frames on the tracking topic. They carry the position they were computed from,
+ * so subscribers that only read latitude/longitude keep working.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrackingEvent {
+    private Long requestId;
+    private EventType type;
+    private Target target;
+    private Double latitude;
+    private Double longitude;
+    private Double distanceKm;
+    private Double speedKmh;
+    private Long etaSeconds;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime eta;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime timestamp;
+
+    public enum EventType {
+        ETA, ARRIVED
+    }
+
+    public enum Target {
+        PICKUP, DROPOFF
+    }
+}
@@ -0,0 +1,13 @@
+package com.bitesharing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VolunteerLoad {
+    private Long volunteerId;
+    private Long activeRequests;
+}
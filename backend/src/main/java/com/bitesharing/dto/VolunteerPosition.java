@@ -0,0 +1,14 @@
+package com.bitesharing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VolunteerPosition {
+    private Long volunteerId;
+    private Double latitude;
+    private Double longitude;
+}
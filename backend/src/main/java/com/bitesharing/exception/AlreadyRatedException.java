@@ -0,0 +1,8 @@
+package com.bitesharing.exception;
+
+public class AlreadyRatedException extends RuntimeException {
+
+    public AlreadyRatedException(Long donationId, Long userId) {
+        super("User " + userId + " has already rated donation " + donationId);
+    }
+}
@@ -0,0 +1,8 @@
+package com.bitesharing.exception;
+
+public class DonationAlreadyClaimedException extends RuntimeException {
+
+    public DonationAlreadyClaimedException(Long donationId) {
+        super("Donation " + donationId + " has already been claimed or is no longer available");
+    }
+}
@@ -0,0 +1,8 @@
+package com.bitesharing.exception;
+
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException() {
+        super("Too many sign-in attempts in progress, retry shortly");
+    }
+}
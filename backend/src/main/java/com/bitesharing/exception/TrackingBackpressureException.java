@@ -0,0 +1,8 @@
+package com.bitesharing.exception;
+
+public class TrackingBackpressureException extends RuntimeException {
+
+    public TrackingBackpressureException() {
+        super("Tracking ingestion is saturated, retry shortly");
+    }
+}
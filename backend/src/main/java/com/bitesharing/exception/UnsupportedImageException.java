@@ -0,0 +1,8 @@
+package com.bitesharing.exception;
+
+public class UnsupportedImageException extends RuntimeException {
+
+    public UnsupportedImageException() {
+        super("Only JPEG, PNG and GIF images are supported");
+    }
+}
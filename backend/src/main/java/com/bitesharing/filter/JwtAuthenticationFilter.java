@@ -35,25 +35,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         final String token = header.substring(7);
-        String username = jwtUtil.extractUsername(token);
-
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-
-            if (jwtUtil.validateToken(token, username)) {
-
-                String role = jwtUtil.extractRole(token);
 
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            jwtUtil.verify(token).ifPresent(verified -> {
                 UsernamePasswordAuthenticationToken auth =
                         new UsernamePasswordAuthenticationToken(
-                                username,
+                                verified.username(),
                                 null,
-                                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
+                                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + verified.role()))
                         );
 
                 auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(auth);
-            }
+            });
         }
 
         chain.doFilter(request, response);
@@ -1,5 +1,6 @@
 package com.bitesharing.model;
 
+import com.bitesharing.service.BadgeLadder;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "badges")
+@EntityListeners(BadgeLadder.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
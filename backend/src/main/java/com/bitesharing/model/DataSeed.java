@@ -0,0 +1,25 @@
+package com.bitesharing.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records that a one-off data seed has been applied, so it runs once across restarts and nodes.
+ */
+@Entity
+@Table(name = "data_seeds")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DataSeed {
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+}
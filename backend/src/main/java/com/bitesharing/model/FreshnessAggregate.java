@@ -0,0 +1,42 @@
+package com.bitesharing.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running freshness totals for one donation, bumped in the same transaction as each rating
+ * insert so summaries never have to scan the ratings themselves.
+ */
+@Entity
+@Table(name = "freshness_aggregates")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FreshnessAggregate {
+    @Id
+    @Column(name = "donation_id")
+    private Long donationId;
+
+    @Column(name = "rating_count", nullable = false)
+    private Integer ratingCount = 0;
+
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+
+    @Column(name = "stars_1", nullable = false)
+    private Integer stars1 = 0;
+
+    @Column(name = "stars_2", nullable = false)
+    private Integer stars2 = 0;
+
+    @Column(name = "stars_3", nullable = false)
+    private Integer stars3 = 0;
+
+    @Column(name = "stars_4", nullable = false)
+    private Integer stars4 = 0;
+
+    @Column(name = "stars_5", nullable = false)
+    private Integer stars5 = 0;
+}
@@ -10,7 +10,10 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "freshness_ratings")
+@Table(name = "freshness_ratings", uniqueConstraints = {
+    // One rating per user and donation; the insert itself is the duplicate check
+    @UniqueConstraint(name = "uk_freshness_rating_rater", columnNames = {"donation_id", "rated_by"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
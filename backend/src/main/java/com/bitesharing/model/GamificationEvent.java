@@ -0,0 +1,57 @@
+package com.bitesharing.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row for a points award, written in the same transaction as the domain change that
+ * earned it and applied later by {@code GamificationOutboxWorker}.
+ */
+@Entity
+@Table(name = "gamification_outbox", indexes = {
+    @Index(name = "idx_gamification_outbox_attempts", columnList = "attempts, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GamificationEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "gamification_outbox_seq")
+    @SequenceGenerator(name = "gamification_outbox_seq", sequenceName = "gamification_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Integer points;
+
+    @Column(nullable = false, length = 200)
+    private String reason;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "related_entity_type", nullable = false)
+    private PointsHistory.RelatedEntityType relatedEntityType;
+
+    @Column(name = "related_entity_id")
+    private Long relatedEntityId;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -9,7 +9,12 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "points_history")
+@Table(name = "points_history", uniqueConstraints = {
+    // One award per user and source entity; makes replayed outbox events harmless
+    @UniqueConstraint(name = "uk_points_history_source", columnNames = {"user_id", "related_entity_type", "related_entity_id"})
+}, indexes = {
+    @Index(name = "idx_points_history_user_created", columnList = "user_id, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,7 +22,8 @@ import java.time.LocalDateTime;
 public class PointsHistory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "points_history_seq")
+    @SequenceGenerator(name = "points_history_seq", sequenceName = "points_history_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -44,12 +50,18 @@ public class PointsHistory {
     @Column(name = "related_entity_id")
     private Long relatedEntityId;
 
+    // Set only on monthly rollup rows: how many events the row stands for
+    @Column(name = "event_count")
+    private Integer eventCount;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
     }
 
     public enum RelatedEntityType {
@@ -0,0 +1,52 @@
+package com.bitesharing.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Simplified, delta-encoded route of a finished request; replaces its raw tracking rows.
+ */
+@Entity
+@Table(name = "tracking_trajectories")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrackingTrajectory {
+    @Id
+    @Column(name = "request_id")
+    private Long requestId;
+
+    @Column(name = "volunteer_id", nullable = false)
+    private Long volunteerId;
+
+    @Column(name = "original_points", nullable = false)
+    private Integer originalPoints;
+
+    @Column(name = "stored_points", nullable = false)
+    private Integer storedPoints;
+
+    @Column(name = "tolerance_meters", nullable = false)
+    private Double toleranceMeters;
+
+    @Column(nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] encoded;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime startedAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime endedAt;
+
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -8,7 +8,9 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_points")
+@Table(name = "user_points", indexes = {
+    @Index(name = "idx_user_points_total", columnList = "total_points")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,36 @@
+package com.bitesharing.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Points earned by one user on one day, kept alongside points history so windowed leaderboards
+ * sum a bounded number of buckets.
+ */
+@Entity
+@Table(name = "user_points_daily", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_user_points_daily", columnNames = {"user_id", "bucket_date"})
+}, indexes = {
+    @Index(name = "idx_user_points_daily_date", columnList = "bucket_date, user_id, points")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPointsDaily {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(nullable = false)
+    private Integer points = 0;
+}
@@ -0,0 +1,18 @@
+package com.bitesharing.repository;
+
+import com.bitesharing.model.DataSeed;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DataSeedRepository extends JpaRepository<DataSeed, String> {
+
+    // 1 when this transaction claimed the seed, 0 when it was already recorded; a concurrent
+    // uncommitted claim on the same name makes this wait for that transaction to finish
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO data_seeds (name, applied_at) VALUES (:name, NOW())", nativeQuery = true)
+    int claim(@Param("name") String name);
+}
@@ -1,19 +1,78 @@
 package com.bitesharing.repository;
 
+import com.bitesharing.dto.DonationRow;
+import com.bitesharing.dto.ExpiringDonationMessage;
 import com.bitesharing.model.Donation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface DonationRepository extends JpaRepository<Donation, Long> {
+    String ROW_SELECT = "SELECT new com.bitesharing.dto.DonationRow(d.id, u.id, u.fullName, d.foodName, d.description, " +
+            "d.quantity, d.expiryDate, d.donationType, d.status, d.photoUrl, d.latitude, d.longitude, d.address, d.createdAt) " +
+            "FROM Donation d JOIN d.donor u ";
+
+    String ROW_FILTER = "(:status IS NULL OR d.status = :status) " +
+            "AND (:type IS NULL OR d.donationType = :type) " +
+            "AND (:from IS NULL OR d.createdAt >= :from) " +
+            "AND (:to IS NULL OR d.createdAt < :to) ";
+
     List<Donation> findByDonorId(Long donorId);
     List<Donation> findByDonationType(Donation.DonationType donationType);
     List<Donation> findByStatus(Donation.DonationStatus status);
     List<Donation> findByDonationTypeAndStatus(Donation.DonationType donationType, Donation.DonationStatus status);
     List<Donation> findByExpiryDateBefore(LocalDateTime dateTime);
     List<Donation> findByStatusAndExpiryDateBefore(Donation.DonationStatus status, LocalDateTime dateTime);
-}
 
+    @Query(ROW_SELECT + "WHERE (:cursor IS NULL OR d.id < :cursor) AND " + ROW_FILTER + "ORDER BY d.id DESC")
+    List<DonationRow> findRowsBefore(@Param("cursor") Long cursor,
+                                     @Param("status") Donation.DonationStatus status,
+                                     @Param("type") Donation.DonationType type,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to,
+                                     Pageable pageable);
+
+    // MySQL Connector/J only streams rows (instead of buffering the whole result) with this fetch size
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query(ROW_SELECT + "WHERE " + ROW_FILTER + "ORDER BY d.id DESC")
+    Stream<DonationRow> streamRows(@Param("status") Donation.DonationStatus status,
+                                   @Param("type") Donation.DonationType type,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to);
+
+    @Query("SELECT new com.bitesharing.dto.ExpiringDonationMessage(d.id, d.foodName, d.donationType, d.expiryDate) " +
+            "FROM Donation d WHERE d.status = :status AND d.expiryDate <= :until")
+    List<ExpiringDonationMessage> findExpiringBefore(@Param("status") Donation.DonationStatus status,
+                                                     @Param("until") LocalDateTime until);
+
+    @Query("SELECT d.id FROM Donation d WHERE d.id IN :ids AND d.status = :status")
+    List<Long> findIdsByIdInAndStatus(@Param("ids") Collection<Long> ids,
+                                      @Param("status") Donation.DonationStatus status);
+
+    @Modifying
+    @Query("UPDATE Donation d SET d.status = :newStatus, d.updatedAt = :now " +
+            "WHERE d.id IN :ids AND d.status = :expectedStatus")
+    int updateStatusWhere(@Param("ids") Collection<Long> ids,
+                          @Param("expectedStatus") Donation.DonationStatus expectedStatus,
+                          @Param("newStatus") Donation.DonationStatus newStatus,
+                          @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Donation d SET d.status = :newStatus, d.updatedAt = :now " +
+            "WHERE d.status = :expectedStatus AND d.expiryDate < :now")
+    int updateStatusWhereExpiredBefore(@Param("expectedStatus") Donation.DonationStatus expectedStatus,
+                                       @Param("newStatus") Donation.DonationStatus newStatus,
+                                       @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,40 @@
+package com.bitesharing.repository;
+
+import com.bitesharing.model.FreshnessAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FreshnessAggregateRepository extends JpaRepository<FreshnessAggregate, Long> {
+
+    List<FreshnessAggregate> findByDonationIdIn(Collection<Long> donationIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO freshness_aggregates " +
+            "(donation_id, rating_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5) " +
+            "VALUES (:donationId, 1, :rating, :rating = 1, :rating = 2, :rating = 3, :rating = 4, :rating = 5) " +
+            "ON DUPLICATE KEY UPDATE rating_count = rating_count + 1, rating_sum = rating_sum + :rating, " +
+            "stars_1 = stars_1 + (:rating = 1), stars_2 = stars_2 + (:rating = 2), stars_3 = stars_3 + (:rating = 3), " +
+            "stars_4 = stars_4 + (:rating = 4), stars_5 = stars_5 + (:rating = 5)", nativeQuery = true)
+    int addRating(@Param("donationId") Long donationId, @Param("rating") int rating);
+
+    // Sets each aggregate to what the ratings table holds, so rows created by ratings that landed
+    // before the seed are corrected rather than duplicated or left short
+    @Modifying
+    @Query(value = "INSERT INTO freshness_aggregates " +
+            "(donation_id, rating_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5) " +
+            "SELECT s.donation_id, s.rating_count, s.rating_sum, s.stars_1, s.stars_2, s.stars_3, s.stars_4, s.stars_5 " +
+            "FROM (SELECT donation_id, COUNT(*) AS rating_count, SUM(rating) AS rating_sum, " +
+            "SUM(rating = 1) AS stars_1, SUM(rating = 2) AS stars_2, SUM(rating = 3) AS stars_3, " +
+            "SUM(rating = 4) AS stars_4, SUM(rating = 5) AS stars_5 FROM freshness_ratings GROUP BY donation_id) AS s " +
+            "ON DUPLICATE KEY UPDATE rating_count = s.rating_count, rating_sum = s.rating_sum, " +
+            "stars_1 = s.stars_1, stars_2 = s.stars_2, stars_3 = s.stars_3, stars_4 = s.stars_4, stars_5 = s.stars_5",
+            nativeQuery = true)
+    int backfillFromRatings();
+}
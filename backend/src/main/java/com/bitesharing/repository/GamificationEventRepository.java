@@ -0,0 +1,26 @@
+package com.bitesharing.repository;
+
+import com.bitesharing.model.GamificationEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface GamificationEventRepository extends JpaRepository<GamificationEvent, Long> {
+
+    @Query("SELECT e FROM GamificationEvent e WHERE e.attempts < :maxAttempts ORDER BY e.id ASC")
+    List<GamificationEvent> findPending(@Param("maxAttempts") int maxAttempts, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE GamificationEvent e SET e.attempts = e.attempts + 1, e.lastError = :error WHERE e.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("error") String error);
+
+    long countByAttemptsLessThan(int maxAttempts);
+
+    long countByAttemptsGreaterThanOrEqual(int maxAttempts);
+}
@@ -1,13 +1,51 @@
 package com.bitesharing.repository;
 
+import com.bitesharing.dto.PointsHistoryRow;
+import com.bitesharing.dto.PointsRollup;
 import com.bitesharing.model.PointsHistory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PointsHistoryRepository extends JpaRepository<PointsHistory, Long> {
+    String ROW_SELECT = "SELECT new com.bitesharing.dto.PointsHistoryRow(h.id, h.points, h.reason, h.relatedEntityType, " +
+            "h.relatedEntityId, h.eventCount, h.createdAt) FROM PointsHistory h ";
+
     List<PointsHistory> findByUserIdOrderByCreatedAtDesc(Long userId);
-}
+    boolean existsByUserIdAndRelatedEntityTypeAndRelatedEntityId(Long userId, PointsHistory.RelatedEntityType relatedEntityType,
+                                                                 Long relatedEntityId);
+
+    @Query(ROW_SELECT + "WHERE h.user.id = :userId ORDER BY h.createdAt DESC, h.id DESC")
+    List<PointsHistoryRow> findFirstRows(@Param("userId") Long userId, Pageable pageable);
+
+    // Rollup rows get later ids than the events they replace, so the key is (created_at, id)
+    @Query(ROW_SELECT + "WHERE h.user.id = :userId AND (h.createdAt < :createdAt " +
+            "OR (h.createdAt = :createdAt AND h.id < :id)) ORDER BY h.createdAt DESC, h.id DESC")
+    List<PointsHistoryRow> findRowsBefore(@Param("userId") Long userId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
 
+    @Query("SELECT h.createdAt FROM PointsHistory h WHERE h.id = :id AND h.user.id = :userId")
+    Optional<LocalDateTime> findCreatedAt(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("SELECT MIN(h.createdAt) FROM PointsHistory h WHERE h.eventCount IS NULL AND h.createdAt < :before")
+    LocalDateTime findOldestEventBefore(@Param("before") LocalDateTime before);
+
+    @Query("SELECT new com.bitesharing.dto.PointsRollup(h.user.id, h.relatedEntityType, SUM(h.points), COUNT(h)) " +
+            "FROM PointsHistory h WHERE h.eventCount IS NULL AND h.createdAt >= :from AND h.createdAt < :to " +
+            "GROUP BY h.user.id, h.relatedEntityType")
+    List<PointsRollup> rollupEvents(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query("DELETE FROM PointsHistory h WHERE h.eventCount IS NULL AND h.createdAt >= :from AND h.createdAt < :to")
+    int deleteEvents(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -1,18 +1,112 @@
 package com.bitesharing.repository;
 
+import com.bitesharing.dto.DeliveryTargets;
+import com.bitesharing.dto.RequestAssignment;
+import com.bitesharing.dto.RequestRow;
+import com.bitesharing.dto.VolunteerLoad;
 import com.bitesharing.model.Request;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RequestRepository extends JpaRepository<Request, Long> {
+    String ROW_SELECT = "SELECT new com.bitesharing.dto.RequestRow(r.id, d.id, d.foodName, d.donationType, " +
+            "rq.id, rq.fullName, r.requesterType, r.status, v.id, v.fullName, r.pickupAddress, r.deliveryAddress, " +
+            "r.createdAt, r.updatedAt) " +
+            "FROM Request r JOIN r.donation d LEFT JOIN r.requester rq LEFT JOIN r.assignedVolunteer v ";
+
+    String ROW_FILTER = "(:status IS NULL OR r.status = :status) " +
+            "AND (:requesterType IS NULL OR r.requesterType = :requesterType) " +
+            "AND (:from IS NULL OR r.createdAt >= :from) " +
+            "AND (:to IS NULL OR r.createdAt < :to) ";
+
+    // Listings serialize every association, so load them in the same select instead of 3 lookups per row
+    @Override
+    @EntityGraph(attributePaths = {"donation", "requester", "assignedVolunteer"})
+    List<Request> findAll();
+
+    @EntityGraph(attributePaths = {"donation", "requester", "assignedVolunteer"})
     List<Request> findByDonationId(Long donationId);
+
+    @EntityGraph(attributePaths = {"donation", "requester", "assignedVolunteer"})
     List<Request> findByRequesterId(Long requesterId);
+
+    @EntityGraph(attributePaths = {"donation", "requester", "assignedVolunteer"})
     List<Request> findByAssignedVolunteerId(Long volunteerId);
+
+    @EntityGraph(attributePaths = {"donation", "requester", "assignedVolunteer"})
     List<Request> findByStatus(Request.RequestStatus status);
+
+    @EntityGraph(attributePaths = {"donation", "requester", "assignedVolunteer"})
     List<Request> findByRequesterType(Request.RequesterType requesterType);
+
+    @EntityGraph(attributePaths = {"donation", "requester", "assignedVolunteer"})
     List<Request> findByRequesterTypeAndStatus(Request.RequesterType requesterType, Request.RequestStatus status);
-}
 
+    @Query(ROW_SELECT + "WHERE rq.id = :requesterId ORDER BY r.id DESC")
+    List<RequestRow> findRowsByRequesterId(@Param("requesterId") Long requesterId);
+
+    @Query(ROW_SELECT + "WHERE v.id = :volunteerId ORDER BY r.id DESC")
+    List<RequestRow> findRowsByAssignedVolunteerId(@Param("volunteerId") Long volunteerId);
+
+    @Query(ROW_SELECT + "WHERE d.id = :donationId ORDER BY r.id DESC")
+    List<RequestRow> findRowsByDonationId(@Param("donationId") Long donationId);
+
+    @Query(ROW_SELECT + "WHERE (:cursor IS NULL OR r.id < :cursor) AND " + ROW_FILTER + "ORDER BY r.id DESC")
+    List<RequestRow> findRowsBefore(@Param("cursor") Long cursor,
+                                    @Param("status") Request.RequestStatus status,
+                                    @Param("requesterType") Request.RequesterType requesterType,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to,
+                                    Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query(ROW_SELECT + "WHERE " + ROW_FILTER + "ORDER BY r.id DESC")
+    Stream<RequestRow> streamRows(@Param("status") Request.RequestStatus status,
+                                  @Param("requesterType") Request.RequesterType requesterType,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to);
+
+    @Query("SELECT new com.bitesharing.dto.VolunteerLoad(r.assignedVolunteer.id, COUNT(r)) FROM Request r " +
+            "WHERE r.assignedVolunteer IS NOT NULL AND r.status IN :statuses GROUP BY r.assignedVolunteer.id")
+    List<VolunteerLoad> countByAssignedVolunteerAndStatusIn(@Param("statuses") Collection<Request.RequestStatus> statuses);
+
+    @Query("SELECT r FROM Request r JOIN FETCH r.donation LEFT JOIN FETCH r.requester " +
+            "WHERE r.assignedVolunteer.id = :volunteerId AND r.status IN :statuses")
+    List<Request> findRouteRequests(@Param("volunteerId") Long volunteerId,
+                                    @Param("statuses") Collection<Request.RequestStatus> statuses);
+
+    @Query("SELECT new com.bitesharing.dto.RequestAssignment(r.id, v.id, r.status) " +
+            "FROM Request r LEFT JOIN r.assignedVolunteer v WHERE r.id = :requestId")
+    Optional<RequestAssignment> findAssignment(@Param("requestId") Long requestId);
+
+    @Query("SELECT new com.bitesharing.dto.RequestAssignment(r.id, v.id, r.status) " +
+            "FROM Request r JOIN r.assignedVolunteer v WHERE r.status IN :statuses")
+    List<RequestAssignment> findAssignmentsByStatusIn(@Param("statuses") Collection<Request.RequestStatus> statuses);
+
+    @Query("SELECT r.id FROM Request r WHERE r.status = :status AND r.updatedAt < :before AND r.id > :afterId " +
+            "AND EXISTS (SELECT t.id FROM Tracking t WHERE t.request = r) " +
+            "AND NOT EXISTS (SELECT tt.requestId FROM TrackingTrajectory tt WHERE tt.requestId = r.id) " +
+            "ORDER BY r.id")
+    List<Long> findIdsWithUncompactedTracking(@Param("status") Request.RequestStatus status,
+                                              @Param("before") LocalDateTime before,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
+
+    @Query("SELECT new com.bitesharing.dto.DeliveryTargets(r.id, d.latitude, d.longitude, rq.latitude, rq.longitude) " +
+            "FROM Request r JOIN r.donation d LEFT JOIN r.requester rq WHERE r.id = :requestId")
+    Optional<DeliveryTargets> findDeliveryTargets(@Param("requestId") Long requestId);
+}
@@ -1,7 +1,12 @@
 package com.bitesharing.repository;
 
+import com.bitesharing.dto.TrackingPoint;
+import com.bitesharing.dto.VolunteerPosition;
 import com.bitesharing.model.Tracking;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,5 +16,16 @@ public interface TrackingRepository extends JpaRepository<Tracking, Long> {
     List<Tracking> findByRequestIdOrderByTimestampDesc(Long requestId);
     List<Tracking> findByVolunteerIdOrderByTimestampDesc(Long volunteerId);
     Tracking findFirstByRequestIdOrderByTimestampDesc(Long requestId);
-}
 
+    @Query("SELECT new com.bitesharing.dto.VolunteerPosition(t.volunteer.id, t.latitude, t.longitude) FROM Tracking t " +
+            "WHERE t.id IN (SELECT MAX(t2.id) FROM Tracking t2 GROUP BY t2.volunteer.id)")
+    List<VolunteerPosition> findLatestVolunteerPositions();
+
+    @Query("SELECT new com.bitesharing.dto.TrackingPoint(t.request.id, t.volunteer.id, t.latitude, t.longitude, t.timestamp) " +
+            "FROM Tracking t WHERE t.request.id = :requestId ORDER BY t.timestamp ASC, t.id ASC")
+    List<TrackingPoint> findPointsByRequestId(@Param("requestId") Long requestId);
+
+    @Modifying
+    @Query("DELETE FROM Tracking t WHERE t.request.id = :requestId")
+    int deleteByRequestId(@Param("requestId") Long requestId);
+}
@@ -0,0 +1,9 @@
+package com.bitesharing.repository;
+
+import com.bitesharing.model.TrackingTrajectory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TrackingTrajectoryRepository extends JpaRepository<TrackingTrajectory, Long> {
+}
@@ -2,6 +2,8 @@ package com.bitesharing.repository;
 
 import com.bitesharing.model.UserBadge;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,5 +12,8 @@ import java.util.List;
 public interface UserBadgeRepository extends JpaRepository<UserBadge, Long> {
     List<UserBadge> findByUserId(Long userId);
     boolean existsByUserIdAndBadgeId(Long userId, Long badgeId);
+
+    @Query("SELECT ub.badge.id FROM UserBadge ub WHERE ub.user.id = :userId")
+    List<Long> findBadgeIdsByUserId(@Param("userId") Long userId);
 }
 
@@ -0,0 +1,37 @@
+package com.bitesharing.repository;
+
+import com.bitesharing.dto.PeriodScore;
+import com.bitesharing.model.UserPointsDaily;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UserPointsDailyRepository extends JpaRepository<UserPointsDaily, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO user_points_daily (user_id, bucket_date, points) VALUES (:userId, :day, :points) " +
+            "ON DUPLICATE KEY UPDATE points = points + :points", nativeQuery = true)
+    int addPoints(@Param("userId") Long userId, @Param("day") LocalDate day, @Param("points") int points);
+
+    @Query("SELECT new com.bitesharing.dto.PeriodScore(d.userId, SUM(d.points)) FROM UserPointsDaily d " +
+            "WHERE d.bucketDate BETWEEN :from AND :to GROUP BY d.userId ORDER BY SUM(d.points) DESC, d.userId ASC")
+    List<PeriodScore> findTopBetween(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+
+    // One-off seed from per-event history when the bucket table is introduced. Buckets are set to
+    // the history total rather than added to, so awards that landed first are not counted twice;
+    // monthly rollup rows are skipped because they no longer say which day the points were earned
+    @Modifying
+    @Query(value = "INSERT INTO user_points_daily (user_id, bucket_date, points) " +
+            "SELECT s.user_id, s.bucket_date, s.points FROM (SELECT user_id, DATE(created_at) AS bucket_date, " +
+            "SUM(points) AS points FROM points_history WHERE created_at IS NOT NULL AND event_count IS NULL " +
+            "GROUP BY user_id, DATE(created_at)) AS s " +
+            "ON DUPLICATE KEY UPDATE points = s.points", nativeQuery = true)
+    int backfillFromHistory();
+}
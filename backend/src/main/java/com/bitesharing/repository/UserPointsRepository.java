@@ -1,15 +1,39 @@
 package com.bitesharing.repository;
 
+import com.bitesharing.dto.UserScore;
 import com.bitesharing.model.UserPoints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserPointsRepository extends JpaRepository<UserPoints, Long> {
     Optional<UserPoints> findByUserId(Long userId);
     List<UserPoints> findAllByOrderByTotalPointsDesc();
-}
 
+    // Same order as the in-memory leaderboard, so it can be loaded without re-sorting
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT new com.bitesharing.dto.UserScore(up.user.id, up.totalPoints) FROM UserPoints up " +
+            "ORDER BY up.totalPoints DESC, up.user.id ASC")
+    Stream<UserScore> streamScores();
+
+    // MySQL applies the assignments left to right, so level is derived from the incremented total
+    @Modifying
+    @Query(value = "INSERT INTO user_points (user_id, total_points, level, last_updated) " +
+            "VALUES (:userId, :points, :points DIV 100 + 1, NOW()) " +
+            "ON DUPLICATE KEY UPDATE total_points = total_points + :points, " +
+            "level = total_points DIV 100 + 1, last_updated = NOW()", nativeQuery = true)
+    int incrementPoints(@Param("userId") Long userId, @Param("points") int points);
+
+    @Query("SELECT up.totalPoints FROM UserPoints up WHERE up.user.id = :userId")
+    Optional<Integer> findTotalPointsByUserId(@Param("userId") Long userId);
+}
@@ -2,7 +2,11 @@ package com.bitesharing.repository;
 
 import com.bitesharing.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,5 +20,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByUserTypeAndStatus(User.UserType userType, User.UserStatus status);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    // Only replaces the hash it was computed from, so a concurrent password change wins
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id AND u.password = :previous")
+    int replacePassword(@Param("id") Long id, @Param("previous") String previous, @Param("password") String password);
 }
 
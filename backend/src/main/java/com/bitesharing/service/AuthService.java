@@ -3,20 +3,23 @@ package com.bitesharing.service;
 import com.bitesharing.dto.AuthRequest;
 import com.bitesharing.dto.AuthResponse;
 import com.bitesharing.dto.RegisterRequest;
+import com.bitesharing.exception.PasswordHashingBusyException;
 import com.bitesharing.model.User;
 import com.bitesharing.repository.UserRepository;
 import com.bitesharing.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final UserCache userCache;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
 
     @Transactional
@@ -31,7 +34,7 @@ public class AuthService {
         User user = new User();
         user.setUsername(request.getUsername());
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         user.setFullName(request.getFullName());
         user.setPhone(request.getPhone());
         user.setAddress(request.getAddress());
@@ -53,12 +56,13 @@ public class AuthService {
     }
 
     public AuthResponse login(AuthRequest request) {
-        User user = userRepository.findByUsername(request.getUsername())
+        User user = userCache.findByUsername(request.getUsername())
                 .orElseThrow(() -> new RuntimeException("Invalid credentials"));
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
             throw new RuntimeException("Invalid credentials");
         }
+        rehashIfNeeded(user, request.getPassword());
 
         if (user.getStatus() != User.UserStatus.APPROVED) {
             throw new RuntimeException("Account not approved yet");
@@ -68,5 +72,19 @@ public class AuthService {
 
         return new AuthResponse(token, user.getUsername(), user.getUserType().name(), user.getId());
     }
-}
 
+    // Hashes made before a bcrypt.strength increase are upgraded the next time the user signs in
+    private void rehashIfNeeded(User user, String rawPassword) {
+        if (!passwordHashingService.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            String upgraded = passwordHashingService.encode(rawPassword);
+            if (userRepository.replacePassword(user.getId(), user.getPassword(), upgraded) > 0) {
+                userCache.evict(user.getId());
+            }
+        } catch (PasswordHashingBusyException e) {
+            log.debug("Skipped password rehash for user {}: hashing pool busy", user.getId());
+        }
+    }
+}
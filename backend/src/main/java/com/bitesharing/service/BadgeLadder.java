@@ -0,0 +1,88 @@
+package com.bitesharing.service;
+
+import com.bitesharing.model.Badge;
+import com.bitesharing.repository.BadgeRepository;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Badge thresholds as an immutable array sorted by points, swapped wholesale whenever a badge is
+ * written. Registered as the {@link Badge} entity listener, so any change through JPA marks the
+ * ladder stale and the next lookup reloads it.
+ */
+@Slf4j
+@Component
+public class BadgeLadder {
+
+    private final BadgeRepository badgeRepository;
+
+    private volatile Rung[] rungs = new Rung[0];
+    private volatile boolean stale = true;
+
+    public BadgeLadder(@Lazy BadgeRepository badgeRepository) {
+        this.badgeRepository = badgeRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        Rung[] loaded = badgeRepository.findAll().stream()
+                .map(badge -> new Rung(badge.getId(), badge.getName(), badge.getPointsRequired()))
+                .sorted(Comparator.comparingInt(Rung::pointsRequired).thenComparing(Rung::id))
+                .toArray(Rung[]::new);
+        stale = false;
+        rungs = loaded;
+        log.info("Badge ladder loaded with {} badges", loaded.length);
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onBadgeChanged(Badge badge) {
+        // Queries are not allowed inside a flush, so only flag it here
+        stale = true;
+    }
+
+    /**
+     * Badges whose threshold lies in {@code (fromExclusive, toInclusive]}, lowest first.
+     */
+    public List<Rung> crossed(int fromExclusive, int toInclusive) {
+        if (stale) {
+            reload();
+        }
+        Rung[] current = rungs;
+        if (toInclusive <= fromExclusive || current.length == 0) {
+            return List.of();
+        }
+        int start = upperBound(current, fromExclusive);
+        int end = upperBound(current, toInclusive);
+        return start < end ? Arrays.asList(current).subList(start, end) : List.of();
+    }
+
+    // First index whose threshold is greater than points
+    private static int upperBound(Rung[] current, int points) {
+        int low = 0;
+        int high = current.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (current[mid].pointsRequired() <= points) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public record Rung(Long id, String name, int pointsRequired) {
+    }
+}
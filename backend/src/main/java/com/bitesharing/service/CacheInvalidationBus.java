@@ -0,0 +1,14 @@
+package com.bitesharing.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries cache evictions between application nodes. Every node subscribes its local caches by
+ * name; publishing a key reaches all subscribers, the publishing node included.
+ */
+public interface CacheInvalidationBus {
+
+    void publish(String cacheName, Object key);
+
+    void subscribe(String cacheName, Consumer<Object> listener);
+}
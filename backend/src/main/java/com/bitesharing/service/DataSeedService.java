@@ -0,0 +1,46 @@
+package com.bitesharing.service;
+
+import com.bitesharing.repository.DataSeedRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs one-off data seeds in the same transaction that records them. A node starting at the same
+ * time waits on the other's claim and then skips the seed; a seed that fails is rolled back with
+ * its claim, so the next start tries again.
+ */
+@Slf4j
+@Service
+public class DataSeedService {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final DataSeedRepository dataSeedRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public DataSeedService(DataSeedRepository dataSeedRepository, TransactionTemplate transactionTemplate) {
+        this.dataSeedRepository = dataSeedRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * @return what the seed returned, or null when it had been applied before
+     */
+    public Integer runOnce(String name, Supplier<Integer> seed) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> dataSeedRepository.claim(name) == 0 ? null : seed.get());
+            } catch (PessimisticLockingFailureException e) {
+                // Live writers touch the rows being seeded, so a deadlock is possible; retry the whole seed
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Seed {} lost a lock conflict (attempt {}), retrying: {}", name, attempt, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.bitesharing.service;
+
+import com.bitesharing.model.CacheInvalidation;
+import com.bitesharing.repository.CacheInvalidationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Carries evictions between nodes through the cache_invalidations table. Publishing evicts on this
+ * node at once and records the key; every node polls for rows it has not seen and applies those
+ * published elsewhere, so a change reaches the other nodes within one poll interval. A row that
+ * cannot be written or read is only covered by the caches' own ttl, which stays the upper bound.
+ * Keys cross nodes in their string form.
+ */
+@Slf4j
+@Component
+public class DatabaseCacheInvalidationBus implements CacheInvalidationBus {
+
+    private final InMemoryCacheInvalidationBus local = new InMemoryCacheInvalidationBus();
+    private final String nodeId = UUID.randomUUID().toString();
+    private final CacheInvalidationRepository cacheInvalidationRepository;
+    private final TransactionTemplate ownTransaction;
+    private final int batchSize;
+    private final long retentionMs;
+    private volatile long lastSeenId = -1;
+
+    public DatabaseCacheInvalidationBus(CacheInvalidationRepository cacheInvalidationRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${cache.invalidation.batch-size:500}") int batchSize,
+                                        @Value("${cache.invalidation.retention-ms:3600000}") long retentionMs) {
+        this.cacheInvalidationRepository = cacheInvalidationRepository;
+        // Publishing runs from afterCommit callbacks, where the finished transaction is still bound
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.retentionMs = retentionMs;
+    }
+
+    @Override
+    public void publish(String cacheName, Object key) {
+        local.publish(cacheName, key);
+        try {
+            ownTransaction.executeWithoutResult(status -> cacheInvalidationRepository.save(
+                    new CacheInvalidation(null, cacheName, String.valueOf(key), nodeId, LocalDateTime.now())));
+        } catch (DataAccessException e) {
+            log.warn("Could not record invalidation of {} in {}, other nodes rely on the ttl: {}",
+                    key, cacheName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(String cacheName, Consumer<Object> listener) {
+        local.subscribe(cacheName, listener);
+    }
+
+    // Caches start empty, so only invalidations published after this node came up matter
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            lastSeenId = cacheInvalidationRepository.findMaxId();
+        } catch (DataAccessException e) {
+            log.warn("Could not read the invalidation log position, retrying on the next poll: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache.invalidation.poll-ms:1000}")
+    public void poll() {
+        if (lastSeenId < 0) {
+            start();
+            return;
+        }
+        try {
+            List<CacheInvalidation> batch;
+            do {
+                batch = cacheInvalidationRepository.findByIdGreaterThanOrderByIdAsc(lastSeenId, PageRequest.of(0, batchSize));
+                for (CacheInvalidation invalidation : batch) {
+                    if (!nodeId.equals(invalidation.getNodeId())) {
+                        local.publish(invalidation.getCacheName(), invalidation.getCacheKey());
+                    }
+                    lastSeenId = invalidation.getId();
+                }
+            } while (batch.size() == batchSize);
+        } catch (DataAccessException e) {
+            log.warn("Polling cache invalidations failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${cache.invalidation.prune-ms:600000}", fixedDelayString = "${cache.invalidation.prune-ms:600000}")
+    public void prune() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(retentionMs * 1_000_000);
+        Integer removed = ownTransaction.execute(status -> cacheInvalidationRepository.deleteCreatedBefore(cutoff));
+        if (removed != null && removed > 0) {
+            log.debug("Pruned {} cache invalidations", removed);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.bitesharing.service;
+
+import com.bitesharing.model.Donation;
+
+/**
+ * Receives donation writes so in-memory read models stay in step with the database.
+ */
+public interface DonationChangeListener {
+
+    void onDonationSaved(Donation donation);
+
+    void onStatusChanged(Long donationId, Donation.DonationStatus status);
+}
@@ -0,0 +1,178 @@
+package com.bitesharing.service;
+
+import com.bitesharing.dto.ExpiringDonationMessage;
+import com.bitesharing.model.Donation;
+import com.bitesharing.repository.DonationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * Flips PENDING donations to EXPIRED close to their deadline and publishes "expiring soon"
+ * warnings. Only donations due within the look-ahead window are held in memory; the window is
+ * refilled from the (status, expiry_date) index, and a periodic set-based sweep catches anything
+ * that slipped past the queues.
+ */
+@Slf4j
+@Service
+public class DonationExpiryService {
+
+    public static final String EXPIRING_TOPIC = "/topic/donations/expiring";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final DonationRepository donationRepository;
+    private final DonationGeoIndex donationGeoIndex;
+    private final List<DonationChangeListener> donationChangeListeners;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration warningLead;
+    private final Duration horizon;
+
+    private final PriorityBlockingQueue<Timer> expiryQueue = new PriorityBlockingQueue<>(64, Timer.ORDER);
+    private final PriorityBlockingQueue<Timer> warningQueue = new PriorityBlockingQueue<>(64, Timer.ORDER);
+    private final Set<Long> scheduledExpiries = ConcurrentHashMap.newKeySet();
+    private final Set<Long> scheduledWarnings = ConcurrentHashMap.newKeySet();
+
+    public DonationExpiryService(DonationRepository donationRepository,
+                                 DonationGeoIndex donationGeoIndex,
+                                 List<DonationChangeListener> donationChangeListeners,
+                                 SimpMessagingTemplate messagingTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${donation.expiry.warning-minutes:30}") long warningMinutes,
+                                 @Value("${donation.expiry.horizon-minutes:5}") long horizonMinutes) {
+        this.donationRepository = donationRepository;
+        this.donationGeoIndex = donationGeoIndex;
+        this.donationChangeListeners = donationChangeListeners;
+        this.messagingTemplate = messagingTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.warningLead = Duration.ofMinutes(warningMinutes);
+        this.horizon = Duration.ofMinutes(horizonMinutes);
+    }
+
+    public void track(Donation donation) {
+        if (donation.getId() == null || donation.getExpiryDate() == null
+                || donation.getStatus() != Donation.DonationStatus.PENDING) {
+            return;
+        }
+        schedule(new ExpiringDonationMessage(donation.getId(), donation.getFoodName(),
+                donation.getDonationType(), donation.getExpiryDate()), LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${donation.expiry.refill-ms:60000}")
+    public void refill() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ExpiringDonationMessage> upcoming = donationRepository.findExpiringBefore(
+                Donation.DonationStatus.PENDING, now.plus(warningLead).plus(horizon));
+        upcoming.forEach(donation -> schedule(donation, now));
+        log.debug("Expiry window refilled: {} expiries, {} warnings scheduled",
+                expiryQueue.size(), warningQueue.size());
+    }
+
+    @Scheduled(fixedDelayString = "${donation.expiry.tick-ms:1000}")
+    public void tick() {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<ExpiringDonationMessage> batch;
+        do {
+            batch = drainDue(warningQueue, now);
+            sendWarnings(batch);
+        } while (batch.size() == BATCH_SIZE);
+
+        do {
+            batch = drainDue(expiryQueue, now);
+            expire(batch, now);
+        } while (batch.size() == BATCH_SIZE);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${donation.expiry.sweep-ms:300000}")
+    public void scheduledSweep() {
+        sweep();
+    }
+
+    public int sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer expired = transactionTemplate.execute(status -> donationRepository.updateStatusWhereExpiredBefore(
+                Donation.DonationStatus.PENDING, Donation.DonationStatus.EXPIRED, now));
+        donationGeoIndex.evictExpired(now);
+        if (expired != null && expired > 0) {
+            log.info("Expiry sweep marked {} donations as EXPIRED", expired);
+        }
+        return expired != null ? expired : 0;
+    }
+
+    private void schedule(ExpiringDonationMessage donation, LocalDateTime now) {
+        LocalDateTime expiry = donation.getExpiryDate();
+        if (expiry.isAfter(now.plus(warningLead).plus(horizon))) {
+            return;
+        }
+        if (scheduledExpiries.add(donation.getDonationId())) {
+            expiryQueue.add(new Timer(expiry, donation));
+        }
+        if (expiry.isAfter(now) && scheduledWarnings.add(donation.getDonationId())) {
+            warningQueue.add(new Timer(expiry.minus(warningLead), donation));
+        }
+    }
+
+    private List<ExpiringDonationMessage> drainDue(PriorityBlockingQueue<Timer> queue, LocalDateTime now) {
+        List<ExpiringDonationMessage> due = new ArrayList<>();
+        Timer head;
+        // Single consumer: anything polled after a due peek is due as well
+        while (due.size() < BATCH_SIZE && (head = queue.peek()) != null && !head.fireAt().isAfter(now)) {
+            due.add(queue.poll().donation());
+        }
+        return due;
+    }
+
+    private void sendWarnings(List<ExpiringDonationMessage> due) {
+        if (due.isEmpty()) {
+            return;
+        }
+        Set<Long> stillPending = new HashSet<>(donationRepository.findIdsByIdInAndStatus(
+                due.stream().map(ExpiringDonationMessage::getDonationId).toList(), Donation.DonationStatus.PENDING));
+        due.stream()
+                .filter(donation -> stillPending.contains(donation.getDonationId()))
+                .forEach(donation -> messagingTemplate.convertAndSend(EXPIRING_TOPIC, donation));
+    }
+
+    private void expire(List<ExpiringDonationMessage> due, LocalDateTime now) {
+        if (due.isEmpty()) {
+            return;
+        }
+        List<Long> ids = due.stream().map(ExpiringDonationMessage::getDonationId).toList();
+        // Update first, then read back what is EXPIRED: a claim that wins the race is never reported as expired
+        List<Long> expiredIds = transactionTemplate.execute(status -> {
+            int updated = donationRepository.updateStatusWhere(
+                    ids, Donation.DonationStatus.PENDING, Donation.DonationStatus.EXPIRED, now);
+            return updated == 0 ? List.<Long>of()
+                    : donationRepository.findIdsByIdInAndStatus(ids, Donation.DonationStatus.EXPIRED);
+        });
+
+        ids.forEach(id -> {
+            scheduledExpiries.remove(id);
+            scheduledWarnings.remove(id);
+        });
+        if (expiredIds != null) {
+            expiredIds.forEach(id -> donationChangeListeners.forEach(
+                    listener -> listener.onStatusChanged(id, Donation.DonationStatus.EXPIRED)));
+        }
+        log.debug("Expired {} of {} due donations", expiredIds != null ? expiredIds.size() : 0, ids.size());
+    }
+
+    private record Timer(LocalDateTime fireAt, ExpiringDonationMessage donation) {
+        static final Comparator<Timer> ORDER = Comparator.comparing(Timer::fireAt);
+    }
+}
@@ -0,0 +1,87 @@
+package com.bitesharing.service;
+
+import com.bitesharing.dto.DonationRow;
+import com.bitesharing.model.Donation;
+import com.bitesharing.repository.DonationRepository;
+import com.bitesharing.util.GeoGridIndex;
+import com.bitesharing.util.GeoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * In-memory spatial index over PENDING donations, kept in sync by the services that change
+ * donation status and rebuilt from the database on startup.
+ */
+@Slf4j
+@Component
+public class DonationGeoIndex implements DonationChangeListener {
+
+    private final DonationRepository donationRepository;
+    private final GeoGridIndex<Listing> index;
+
+    public DonationGeoIndex(DonationRepository donationRepository,
+                            @Value("${donation.geo.cell-size-deg:0.01}") double cellSizeDeg) {
+        this.donationRepository = donationRepository;
+        this.index = new GeoGridIndex<>(cellSizeDeg);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        index.clear();
+        try (Stream<DonationRow> rows = donationRepository.streamRows(Donation.DonationStatus.PENDING, null, null, null)) {
+            rows.filter(row -> GeoUtils.isValidCoordinate(row.getLatitude(), row.getLongitude()))
+                    .forEach(row -> index.put(row.getId(), row.getLatitude(), row.getLongitude(),
+                            new Listing(row.getDonationType(), row.getExpiryDate())));
+        }
+        log.info("Donation geo index built with {} pending donations", index.size());
+    }
+
+    @Override
+    public void onDonationSaved(Donation donation) {
+        if (donation.getId() == null) {
+            return;
+        }
+        if (donation.getStatus() != Donation.DonationStatus.PENDING
+                || !GeoUtils.isValidCoordinate(donation.getLatitude(), donation.getLongitude())) {
+            index.remove(donation.getId());
+            return;
+        }
+        index.put(donation.getId(), donation.getLatitude(), donation.getLongitude(),
+                new Listing(donation.getDonationType(), donation.getExpiryDate()));
+    }
+
+    @Override
+    public void onStatusChanged(Long donationId, Donation.DonationStatus status) {
+        if (status != Donation.DonationStatus.PENDING) {
+            index.remove(donationId);
+        }
+    }
+
+    public int evictExpired(LocalDateTime now) {
+        return index.removeIf(entry -> entry.value().expiryDate() != null && !entry.value().expiryDate().isAfter(now));
+    }
+
+    public List<GeoGridIndex.Hit<Listing>> findNearest(double latitude, double longitude, double radiusKm,
+                                                       int limit, Donation.DonationType type) {
+        LocalDateTime now = LocalDateTime.now();
+        return index.nearest(latitude, longitude, radiusKm, limit, listing ->
+                (type == null || listing.donationType() == type)
+                        && (listing.expiryDate() == null || listing.expiryDate().isAfter(now)));
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public record Listing(Donation.DonationType donationType, LocalDateTime expiryDate) {
+    }
+}
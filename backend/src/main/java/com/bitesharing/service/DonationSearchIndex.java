@@ -0,0 +1,222 @@
+package com.bitesharing.service;
+
+import com.bitesharing.dto.DonationRow;
+import com.bitesharing.model.Donation;
+import com.bitesharing.repository.DonationRepository;
+import com.bitesharing.util.TextTokenizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index over donation food names and descriptions. Terms live in a sorted map so
+ * prefix lookups are range scans; fuzzy matching is a bounded edit-distance check over terms
+ * sharing the query token's first letter.
+ */
+@Slf4j
+@Component
+public class DonationSearchIndex implements DonationChangeListener {
+
+    private static final int EXACT_WEIGHT = 3;
+    private static final int PREFIX_WEIGHT = 2;
+    private static final int FUZZY_WEIGHT = 1;
+    private static final int MAX_EXPANSIONS = 64;
+
+    private final DonationRepository donationRepository;
+    private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, Doc> docs = new ConcurrentHashMap<>();
+
+    public DonationSearchIndex(DonationRepository donationRepository) {
+        this.donationRepository = donationRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        postings.clear();
+        docs.clear();
+        try (Stream<DonationRow> rows = donationRepository.streamRows(null, null, null, null)) {
+            rows.forEach(row -> index(row.getId(), row.getFoodName(), row.getDescription(),
+                    row.getDonationType(), row.getStatus(), row.getExpiryDate()));
+        }
+        log.info("Donation search index built: {} donations, {} terms", docs.size(), postings.size());
+    }
+
+    @Override
+    public void onDonationSaved(Donation donation) {
+        if (donation.getId() != null) {
+            index(donation.getId(), donation.getFoodName(), donation.getDescription(),
+                    donation.getDonationType(), donation.getStatus(), donation.getExpiryDate());
+        }
+    }
+
+    @Override
+    public void onStatusChanged(Long donationId, Donation.DonationStatus status) {
+        docs.computeIfPresent(donationId, (id, doc) -> doc.withStatus(status));
+    }
+
+    public List<Long> search(String query, Donation.DonationType type, Donation.DonationStatus status, int limit) {
+        Set<String> queryTokens = TextTokenizer.tokenize(query);
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // Every query token has to match; a document scores the best weight per token
+        Map<Long, Integer> scores = null;
+        for (String token : queryTokens) {
+            Map<Long, Integer> tokenScores = scoreToken(token);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                Map<Long, Integer> merged = new HashMap<>();
+                for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+                    Integer score = tokenScores.get(entry.getKey());
+                    if (score != null) {
+                        merged.put(entry.getKey(), entry.getValue() + score);
+                    }
+                }
+                scores = merged;
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+            Doc doc = docs.get(entry.getKey());
+            if (doc != null && (type == null || doc.type() == type)
+                    && (status == null || doc.effectiveStatus(now) == status)) {
+                ranked.add(entry);
+            }
+        }
+        ranked.sort(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.<Long, Integer>comparingByKey(Comparator.reverseOrder())));
+        return ranked.stream().limit(limit).map(Map.Entry::getKey).toList();
+    }
+
+    public int size() {
+        return docs.size();
+    }
+
+    private Map<Long, Integer> scoreToken(String token) {
+        Map<Long, Integer> scores = new HashMap<>();
+        collect(token, EXACT_WEIGHT, scores);
+
+        int expansions = 0;
+        for (String term : postings.subMap(token, false, token + Character.MAX_VALUE, false).keySet()) {
+            if (++expansions > MAX_EXPANSIONS) {
+                break;
+            }
+            collect(term, PREFIX_WEIGHT, scores);
+        }
+
+        int maxEdits = token.length() >= 8 ? 2 : token.length() >= 4 ? 1 : 0;
+        if (maxEdits > 0) {
+            String first = token.substring(0, 1);
+            expansions = 0;
+            for (String term : postings.subMap(first, true, first + Character.MAX_VALUE, false).keySet()) {
+                if (Math.abs(term.length() - token.length()) <= maxEdits && !term.startsWith(token)
+                        && withinEditDistance(token, term, maxEdits)) {
+                    collect(term, FUZZY_WEIGHT, scores);
+                    if (++expansions >= MAX_EXPANSIONS) {
+                        break;
+                    }
+                }
+            }
+        }
+        return scores;
+    }
+
+    private void collect(String term, int weight, Map<Long, Integer> scores) {
+        Set<Long> ids = postings.get(term);
+        if (ids == null) {
+            return;
+        }
+        for (Long id : ids) {
+            Doc doc = docs.get(id);
+            int score = doc != null && doc.nameTerms().contains(term) ? weight * 2 : weight;
+            scores.merge(id, score, Math::max);
+        }
+    }
+
+    private void index(Long id, String foodName, String description, Donation.DonationType type,
+                       Donation.DonationStatus status, LocalDateTime expiryDate) {
+        Set<String> nameTerms = TextTokenizer.tokenize(foodName);
+        Set<String> allTerms = TextTokenizer.tokenize(description);
+        allTerms.addAll(nameTerms);
+
+        Doc previous = docs.put(id, new Doc(Set.copyOf(nameTerms), Set.copyOf(allTerms), type, status, expiryDate));
+        if (previous != null) {
+            previous.allTerms().stream()
+                    .filter(term -> !allTerms.contains(term))
+                    .forEach(term -> removePosting(term, id));
+        }
+        allTerms.forEach(term -> postings.compute(term, (t, ids) -> {
+            Set<Long> set = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            set.add(id);
+            return set;
+        }));
+    }
+
+    private void removePosting(String term, Long id) {
+        postings.computeIfPresent(term, (t, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static boolean withinEditDistance(String a, String b, int maxEdits) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= maxEdits;
+    }
+
+    private record Doc(Set<String> nameTerms, Set<String> allTerms, Donation.DonationType type,
+                       Donation.DonationStatus status, LocalDateTime expiryDate) {
+
+        Doc withStatus(Donation.DonationStatus newStatus) {
+            return new Doc(nameTerms, allTerms, type, newStatus, expiryDate);
+        }
+
+        Donation.DonationStatus effectiveStatus(LocalDateTime now) {
+            // The set-based expiry sweep does not report ids, so derive EXPIRED from the deadline
+            if (status == Donation.DonationStatus.PENDING && expiryDate != null && !expiryDate.isAfter(now)) {
+                return Donation.DonationStatus.EXPIRED;
+            }
+            return status;
+        }
+    }
+}
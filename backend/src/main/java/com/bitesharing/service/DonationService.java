@@ -1,44 +1,111 @@
 package com.bitesharing.service;
 
+import com.bitesharing.dto.CursorPage;
+import com.bitesharing.dto.DonationRow;
+import com.bitesharing.dto.NearbyDonation;
 import com.bitesharing.model.Donation;
 import com.bitesharing.model.PointsHistory;
 import com.bitesharing.model.User;
 import com.bitesharing.repository.DonationRepository;
-import com.bitesharing.repository.UserRepository;
+import com.bitesharing.util.NdjsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class DonationService {
 
     private final DonationRepository donationRepository;
-    private final UserRepository userRepository;
-    private final GamificationService gamificationService;
+    private final UserCache userCache;
+    private final GamificationOutbox gamificationOutbox;
+    private final DonationGeoIndex donationGeoIndex;
+    private final DonationSearchIndex donationSearchIndex;
+    private final List<DonationChangeListener> donationChangeListeners;
+    private final DonationExpiryService donationExpiryService;
+    private final ObjectMapper objectMapper;
 
     @Transactional
     public Donation createDonation(Donation donation, Long donorId) {
-        User donor = userRepository.findById(donorId)
+        User donor = userCache.findById(donorId)
                 .orElseThrow(() -> new RuntimeException("Donor not found"));
         donation.setDonor(donor);
         donation.setStatus(Donation.DonationStatus.PENDING);
         Donation savedDonation = donationRepository.save(donation);
-        
+        afterCommit(() -> {
+            donationChangeListeners.forEach(listener -> listener.onDonationSaved(savedDonation));
+            donationExpiryService.track(savedDonation);
+        });
+
         // Award points for donation
-        gamificationService.addPoints(donorId, 10, "Created food donation: " + donation.getFoodName(),
+        gamificationOutbox.award(donorId, 10, "Created food donation: " + donation.getFoodName(),
                 PointsHistory.RelatedEntityType.DONATION, savedDonation.getId());
         
         return savedDonation;
     }
 
+    @Transactional
+    public List<Donation> createDonations(List<Donation> donations, Long donorId) {
+        if (donations == null || donations.isEmpty()) {
+            throw new RuntimeException("No donations provided");
+        }
+        User donor = userCache.findById(donorId)
+                .orElseThrow(() -> new RuntimeException("Donor not found"));
+        donations.forEach(donation -> {
+            donation.setId(null);
+            donation.setDonor(donor);
+            donation.setStatus(Donation.DonationStatus.PENDING);
+        });
+
+        // Sequence ids are assigned up front, so the inserts go out as JDBC batches on flush
+        List<Donation> savedDonations = donationRepository.saveAll(donations);
+        donationRepository.flush();
+        afterCommit(() -> savedDonations.forEach(donation -> {
+            donationChangeListeners.forEach(listener -> listener.onDonationSaved(donation));
+            donationExpiryService.track(donation);
+        }));
+
+        // One award for the whole batch instead of a points/badge cascade per item
+        gamificationOutbox.award(donorId, 10 * savedDonations.size(),
+                "Created " + savedDonations.size() + " food donations",
+                PointsHistory.RelatedEntityType.DONATION, savedDonations.get(0).getId());
+
+        return savedDonations;
+    }
+
     public List<Donation> getAllDonations() {
         return donationRepository.findAll();
     }
 
+    public CursorPage<DonationRow> getDonationPage(Long cursor, int size, Donation.DonationStatus status,
+                                                   Donation.DonationType type, LocalDateTime from, LocalDateTime to) {
+        List<DonationRow> rows = donationRepository.findRowsBefore(cursor, status, type, from, to, PageRequest.of(0, size));
+        Long nextCursor = rows.size() == size ? rows.get(rows.size() - 1).getId() : null;
+        return new CursorPage<>(rows, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public long streamDonations(Donation.DonationStatus status, Donation.DonationType type,
+                                LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        try (Stream<DonationRow> rows = donationRepository.streamRows(status, type, from, to)) {
+            return NdjsonWriter.write(objectMapper, out, rows);
+        }
+    }
+
     public List<Donation> getDonationsByDonor(Long donorId) {
         return donationRepository.findByDonorId(donorId);
     }
@@ -51,6 +118,45 @@ public class DonationService {
         return donationRepository.findByDonationTypeAndStatus(type, Donation.DonationStatus.PENDING);
     }
 
+    public List<NearbyDonation> findNearbyDonations(double latitude, double longitude, double radiusKm,
+                                                    int limit, Donation.DonationType type) {
+        var hits = donationGeoIndex.findNearest(latitude, longitude, radiusKm, limit, type);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Donation> donations = donationRepository.findAllById(
+                        hits.stream().map(hit -> hit.entry().id()).toList())
+                .stream()
+                .collect(Collectors.toMap(Donation::getId, Function.identity()));
+
+        // The index is the fast path; the row status is still authoritative
+        return hits.stream()
+                .map(hit -> {
+                    Donation donation = donations.get(hit.entry().id());
+                    if (donation == null || donation.getStatus() != Donation.DonationStatus.PENDING) {
+                        return null;
+                    }
+                    return new NearbyDonation(donation, Math.round(hit.distanceKm() * 1000.0) / 1000.0);
+                })
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public List<Donation> searchDonations(String query, Donation.DonationType type,
+                                          Donation.DonationStatus status, int limit) {
+        List<Long> ids = donationSearchIndex.search(query, type, status, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Donation> donations = donationRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Donation::getId, Function.identity()));
+        return ids.stream()
+                .map(donations::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     public Donation getDonationById(Long id) {
         return donationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Donation not found"));
@@ -60,18 +166,26 @@ public class DonationService {
     public Donation updateDonationStatus(Long id, Donation.DonationStatus status) {
         Donation donation = getDonationById(id);
         donation.setStatus(status);
-        return donationRepository.save(donation);
+        Donation savedDonation = donationRepository.save(donation);
+        afterCommit(() -> donationChangeListeners.forEach(listener -> listener.onDonationSaved(savedDonation)));
+        return savedDonation;
     }
 
-    @Transactional
-    public void checkAndMarkExpiredDonations() {
-        LocalDateTime now = LocalDateTime.now();
-        List<Donation> expiredDonations = donationRepository.findByStatusAndExpiryDateBefore(
-                Donation.DonationStatus.PENDING, now);
-        expiredDonations.forEach(donation -> {
-            donation.setStatus(Donation.DonationStatus.EXPIRED);
-            donationRepository.save(donation);
-        });
+    public int checkAndMarkExpiredDonations() {
+        return donationExpiryService.sweep();
     }
-}
 
+    // The indexes and expiry timers are read by other threads, so they only see committed donations
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.bitesharing.service;
+
+import com.bitesharing.dto.FreshnessRatingRow;
+import com.bitesharing.dto.FreshnessSummary;
+import com.bitesharing.exception.AlreadyRatedException;
+import com.bitesharing.model.FreshnessAggregate;
+import com.bitesharing.model.FreshnessRating;
+import com.bitesharing.repository.FreshnessAggregateRepository;
+import com.bitesharing.repository.DonationRepository;
+import com.bitesharing.repository.FreshnessRatingRepository;
+import com.bitesharing.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FreshnessService {
+
+    private static final int MYSQL_DUPLICATE_KEY = 1062;
+    private static final String AGGREGATES_SEED = "freshness_aggregates.from_ratings";
+
+    private final FreshnessRatingRepository freshnessRatingRepository;
+    private final FreshnessAggregateRepository freshnessAggregateRepository;
+    private final DonationRepository donationRepository;
+    private final UserRepository userRepository;
+    private final DataSeedService dataSeedService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillAggregates() {
+        try {
+            Integer rows = dataSeedService.runOnce(AGGREGATES_SEED, freshnessAggregateRepository::backfillFromRatings);
+            if (rows != null) {
+                log.info("Seeded freshness aggregates from ratings ({} rows affected)", rows);
+            }
+        } catch (DataAccessException e) {
+            log.error("Could not seed freshness aggregates, retrying on next start: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stores a rating with a single insert against reference proxies; the unique (donation, rater)
+     * key rejects duplicates and the foreign keys reject unknown donations or users, which surface
+     * as {@link DataIntegrityViolationException} for the caller to explain.
+     */
+    @Transactional
+    public FreshnessRatingRow rate(Long donationId, Long userId, Integer rating, String comment) {
+        FreshnessRating freshnessRating = new FreshnessRating();
+        freshnessRating.setDonation(donationRepository.getReferenceById(donationId));
+        freshnessRating.setRatedBy(userRepository.getReferenceById(userId));
+        freshnessRating.setRating(rating);
+        freshnessRating.setComment(comment);
+
+        FreshnessRating saved;
+        try {
+            saved = freshnessRatingRepository.saveAndFlush(freshnessRating);
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateKey(e)) {
+                throw new AlreadyRatedException(donationId, userId);
+            }
+            throw e;
+        }
+        freshnessAggregateRepository.addRating(donationId, rating);
+        return new FreshnessRatingRow(saved.getId(), donationId, userId, saved.getRating(),
+                saved.getComment(), saved.getCreatedAt());
+    }
+
+    public FreshnessSummary getSummary(Long donationId) {
+        return freshnessAggregateRepository.findById(donationId)
+                .map(this::toSummary)
+                .orElseGet(() -> emptySummary(donationId));
+    }
+
+    /**
+     * Summaries for many donations in one query, in request order; donations without ratings
+     * get an empty summary rather than being left out.
+     */
+    public List<FreshnessSummary> getSummaries(Collection<Long> donationIds) {
+        Map<Long, FreshnessAggregate> aggregates = new HashMap<>();
+        for (FreshnessAggregate aggregate : freshnessAggregateRepository.findByDonationIdIn(donationIds)) {
+            aggregates.put(aggregate.getDonationId(), aggregate);
+        }
+        List<FreshnessSummary> summaries = new ArrayList<>(donationIds.size());
+        for (Long donationId : donationIds) {
+            FreshnessAggregate aggregate = aggregates.get(donationId);
+            summaries.add(aggregate != null ? toSummary(aggregate) : emptySummary(donationId));
+        }
+        return summaries;
+    }
+
+    private static boolean isDuplicateKey(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && sql.getErrorCode() == MYSQL_DUPLICATE_KEY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private FreshnessSummary toSummary(FreshnessAggregate aggregate) {
+        int[] stars = {aggregate.getStars1(), aggregate.getStars2(), aggregate.getStars3(),
+                aggregate.getStars4(), aggregate.getStars5()};
+        Map<Integer, Integer> distribution = new LinkedHashMap<>();
+        for (int i = 0; i < stars.length; i++) {
+            if (stars[i] > 0) {
+                distribution.put(i + 1, stars[i]);
+            }
+        }
+        return new FreshnessSummary(aggregate.getDonationId(),
+                roundAverage(aggregate.getRatingSum(), aggregate.getRatingCount()),
+                aggregate.getRatingCount(), distribution);
+    }
+
+    private FreshnessSummary emptySummary(Long donationId) {
+        return new FreshnessSummary(donationId, 0.0, 0, Map.of());
+    }
+
+    private static double roundAverage(long sum, int count) {
+        return count == 0 ? 0.0 : Math.round(sum * 10.0 / count) / 10.0;
+    }
+}
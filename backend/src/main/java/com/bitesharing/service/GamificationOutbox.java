@@ -0,0 +1,31 @@
+package com.bitesharing.service;
+
+import com.bitesharing.model.GamificationEvent;
+import com.bitesharing.model.PointsHistory;
+import com.bitesharing.repository.GamificationEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records points awards as outbox rows inside the caller's transaction. The award is applied
+ * asynchronously, so the core write commits or rolls back on its own.
+ */
+@Service
+@RequiredArgsConstructor
+public class GamificationOutbox {
+
+    private final GamificationEventRepository gamificationEventRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void award(Long userId, int points, String reason, PointsHistory.RelatedEntityType entityType, Long entityId) {
+        GamificationEvent event = new GamificationEvent();
+        event.setUserId(userId);
+        event.setPoints(points);
+        event.setReason(reason.length() > 200 ? reason.substring(0, 200) : reason);
+        event.setRelatedEntityType(entityType);
+        event.setRelatedEntityId(entityId);
+        gamificationEventRepository.save(event);
+    }
+}
@@ -0,0 +1,94 @@
+package com.bitesharing.service;
+
+import com.bitesharing.model.GamificationEvent;
+import com.bitesharing.repository.GamificationEventRepository;
+import com.bitesharing.repository.PointsHistoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the gamification outbox in id order. Each event is applied and deleted in its own
+ * transaction; an event whose (user, related entity) award already exists in points history is
+ * just deleted, so redelivery after a crash never double-awards. Events that keep failing are
+ * left in the table after {@code gamification.outbox.max-attempts} for inspection.
+ */
+@Slf4j
+@Service
+public class GamificationOutboxWorker {
+
+    private final GamificationEventRepository gamificationEventRepository;
+    private final PointsHistoryRepository pointsHistoryRepository;
+    private final GamificationService gamificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    public GamificationOutboxWorker(GamificationEventRepository gamificationEventRepository,
+                                    PointsHistoryRepository pointsHistoryRepository,
+                                    GamificationService gamificationService,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${gamification.outbox.batch-size:200}") int batchSize,
+                                    @Value("${gamification.outbox.max-attempts:5}") int maxAttempts) {
+        this.gamificationEventRepository = gamificationEventRepository;
+        this.pointsHistoryRepository = pointsHistoryRepository;
+        this.gamificationService = gamificationService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Scheduled(fixedDelayString = "${gamification.outbox.poll-ms:1000}")
+    public void drain() {
+        List<GamificationEvent> batch;
+        do {
+            batch = gamificationEventRepository.findPending(maxAttempts, PageRequest.of(0, batchSize));
+            boolean clean = true;
+            for (GamificationEvent event : batch) {
+                clean &= apply(event);
+            }
+            // Failed events stay at the head of the queue; retry them on the next poll, not in a loop
+            if (!clean) {
+                return;
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private boolean apply(GamificationEvent event) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (event.getRelatedEntityId() == null
+                        || !pointsHistoryRepository.existsByUserIdAndRelatedEntityTypeAndRelatedEntityId(
+                                event.getUserId(), event.getRelatedEntityType(), event.getRelatedEntityId())) {
+                    gamificationService.addPoints(event.getUserId(), event.getPoints(), event.getReason(),
+                            event.getRelatedEntityType(), event.getRelatedEntityId(),
+                            event.getCreatedAt() != null ? event.getCreatedAt() : LocalDateTime.now());
+                }
+                gamificationEventRepository.deleteById(event.getId());
+            });
+            return true;
+        } catch (Exception e) {
+            log.warn("Gamification event {} failed (attempt {}): {}", event.getId(), event.getAttempts() + 1, e.getMessage());
+            String error = e.getMessage() != null && e.getMessage().length() > 500
+                    ? e.getMessage().substring(0, 500) : e.getMessage();
+            transactionTemplate.executeWithoutResult(status -> gamificationEventRepository.recordFailure(event.getId(), error));
+            return false;
+        }
+    }
+
+    /**
+     * Events still to be applied, and events parked after {@code maxAttempts} failures.
+     */
+    public Map<String, Long> getStats() {
+        return Map.of(
+                "pending", gamificationEventRepository.countByAttemptsLessThan(maxAttempts),
+                "deadLettered", gamificationEventRepository.countByAttemptsGreaterThanOrEqual(maxAttempts));
+    }
+}
@@ -1,88 +1,135 @@
 package com.bitesharing.service;
 
+import com.bitesharing.dto.CursorPage;
+import com.bitesharing.dto.LeaderboardEntry;
+import com.bitesharing.dto.PointsHistoryRow;
 import com.bitesharing.model.*;
 import com.bitesharing.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class GamificationService {
 
+    private static final int BADGE_BONUS_POINTS = 50;
+
     private final UserPointsRepository userPointsRepository;
+    private final UserPointsDailyRepository userPointsDailyRepository;
     private final BadgeRepository badgeRepository;
     private final UserBadgeRepository userBadgeRepository;
     private final PointsHistoryRepository pointsHistoryRepository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final BadgeLadder badgeLadder;
+    private final LeaderboardService leaderboardService;
 
     @Transactional
     public void addPoints(Long userId, Integer points, String reason, PointsHistory.RelatedEntityType entityType, Long entityId) {
-        UserPoints userPoints = userPointsRepository.findByUserId(userId)
-                .orElseGet(() -> {
-                    User user = userRepository.findById(userId)
-                            .orElseThrow(() -> new RuntimeException("User not found"));
-                    UserPoints newPoints = new UserPoints();
-                    newPoints.setUser(user);
-                    newPoints.setTotalPoints(0);
-                    newPoints.setLevel(1);
-                    return newPoints;
-                });
+        addPoints(userId, points, reason, entityType, entityId, LocalDateTime.now());
+    }
+
+    /**
+     * Awards points as of {@code occurredAt}: history rows and the daily bucket use that time, so an
+     * award applied late from the outbox still counts toward the day it was earned.
+     */
+    @Transactional
+    public void addPoints(Long userId, Integer points, String reason, PointsHistory.RelatedEntityType entityType,
+                          Long entityId, LocalDateTime occurredAt) {
+        // The live leaderboard relies on totals never going down
+        if (points == null || points < 0) {
+            throw new RuntimeException("Points awarded must not be negative");
+        }
+        // Atomic increment instead of read-modify-write: concurrent awards cannot lose updates, and the
+        // row stays locked until commit so the total read back is exactly ours
+        try {
+            userPointsRepository.incrementPoints(userId, points);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("User not found");
+        }
+        int total = userPointsRepository.findTotalPointsByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userRepository.getReferenceById(userId);
+
+        List<PointsHistory> history = new ArrayList<>();
+        history.add(newHistory(user, points, reason, entityType, entityId, occurredAt));
+
+        // Badge bonuses can cross further thresholds, so keep walking the ladder from where the
+        // previous step ended; every badge is visited at most once
+        List<UserBadge> earned = new ArrayList<>();
+        Set<Long> owned = null;
+        int from = total - points;
+        int bonus = 0;
+        List<BadgeLadder.Rung> crossed;
+        while (!(crossed = badgeLadder.crossed(from, total)).isEmpty()) {
+            if (owned == null) {
+                owned = new HashSet<>(userBadgeRepository.findBadgeIdsByUserId(userId));
+            }
+            from = total;
+            for (BadgeLadder.Rung rung : crossed) {
+                if (!owned.add(rung.id())) {
+                    continue;
+                }
+                UserBadge userBadge = new UserBadge();
+                userBadge.setUser(user);
+                userBadge.setBadge(badgeRepository.getReferenceById(rung.id()));
+                earned.add(userBadge);
+                history.add(newHistory(user, BADGE_BONUS_POINTS, "Earned badge: " + rung.name(),
+                        PointsHistory.RelatedEntityType.BADGE, rung.id(), occurredAt));
+                bonus += BADGE_BONUS_POINTS;
+                total += BADGE_BONUS_POINTS;
+            }
+        }
 
-        userPoints.setTotalPoints(userPoints.getTotalPoints() + points);
-        userPoints.setLevel(calculateLevel(userPoints.getTotalPoints()));
-        userPointsRepository.save(userPoints);
+        if (bonus > 0) {
+            userPointsRepository.incrementPoints(userId, bonus);
+        }
+        userPointsDailyRepository.addPoints(userId, occurredAt.toLocalDate(), points + bonus);
+        leaderboardService.onPointsChanged(userId, total);
+        pointsHistoryRepository.saveAll(history);
+        if (!earned.isEmpty()) {
+            userBadgeRepository.saveAll(earned);
+        }
+    }
 
-        // Save points history
+    private PointsHistory newHistory(User user, Integer points, String reason,
+                                     PointsHistory.RelatedEntityType entityType, Long entityId, LocalDateTime occurredAt) {
         PointsHistory history = new PointsHistory();
-        history.setUser(userPoints.getUser());
+        history.setUser(user);
         history.setPoints(points);
         history.setReason(reason);
         history.setRelatedEntityType(entityType);
         history.setRelatedEntityId(entityId);
-        pointsHistoryRepository.save(history);
-
-        // Check for new badges
-        checkAndAwardBadges(userId, userPoints.getTotalPoints());
+        history.setCreatedAt(occurredAt);
+        return history;
     }
 
-    private Integer calculateLevel(Integer totalPoints) {
+    static Integer calculateLevel(Integer totalPoints) {
         return (totalPoints / 100) + 1;
     }
 
-    @Transactional
-    public void checkAndAwardBadges(Long userId, Integer totalPoints) {
-        List<Badge> availableBadges = badgeRepository.findByPointsRequiredLessThanEqual(totalPoints);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        for (Badge badge : availableBadges) {
-            if (!userBadgeRepository.existsByUserIdAndBadgeId(userId, badge.getId())) {
-                UserBadge userBadge = new UserBadge();
-                userBadge.setUser(user);
-                userBadge.setBadge(badge);
-                userBadgeRepository.save(userBadge);
-
-                // Add points for earning badge
-                addPoints(userId, 50, "Earned badge: " + badge.getName(),
-                        PointsHistory.RelatedEntityType.BADGE, badge.getId());
-            }
-        }
-    }
-
     public UserPoints getUserPoints(Long userId) {
         return userPointsRepository.findByUserId(userId)
                 .orElseGet(() -> {
-                    User user = userRepository.findById(userId)
+                    User user = userCache.findById(userId)
                             .orElseThrow(() -> new RuntimeException("User not found"));
                     UserPoints newPoints = new UserPoints();
                     newPoints.setUser(user);
                     newPoints.setTotalPoints(0);
                     newPoints.setLevel(1);
-                    return userPointsRepository.save(newPoints);
+                    newPoints = userPointsRepository.save(newPoints);
+                    leaderboardService.onPointsChanged(userId, 0);
+                    return newPoints;
                 });
     }
 
@@ -90,8 +137,33 @@ public class GamificationService {
         return userBadgeRepository.findByUserId(userId);
     }
 
-    public List<UserPoints> getLeaderboard() {
-        return userPointsRepository.findAllByOrderByTotalPointsDesc();
+    public List<LeaderboardEntry> getLeaderboard(int offset, int limit) {
+        return leaderboardService.getTop(offset, limit);
+    }
+
+    public List<LeaderboardEntry> getPeriodLeaderboard(LocalDate from, LocalDate to, int page, int size) {
+        return leaderboardService.getPeriodTop(from, to, page, size);
+    }
+
+    public LeaderboardEntry getLeaderboardRank(Long userId) {
+        return leaderboardService.getRank(userId);
+    }
+
+    public List<LeaderboardEntry> getLeaderboardAround(Long userId, int radius) {
+        return leaderboardService.getAround(userId, radius);
+    }
+
+    public CursorPage<PointsHistoryRow> getPointsHistoryPage(Long userId, Long cursor, int size) {
+        List<PointsHistoryRow> rows;
+        if (cursor == null) {
+            rows = pointsHistoryRepository.findFirstRows(userId, PageRequest.of(0, size));
+        } else {
+            LocalDateTime createdAt = pointsHistoryRepository.findCreatedAt(cursor, userId)
+                    .orElseThrow(() -> new RuntimeException("Unknown history cursor"));
+            rows = pointsHistoryRepository.findRowsBefore(userId, createdAt, cursor, PageRequest.of(0, size));
+        }
+        Long nextCursor = rows.size() == size ? rows.get(rows.size() - 1).getId() : null;
+        return new CursorPage<>(rows, nextCursor);
     }
 
     public List<PointsHistory> getPointsHistory(Long userId) {
@@ -0,0 +1,361 @@
+package com.bitesharing.service;
+
+import com.bitesharing.exception.UnsupportedImageException;
+import com.bitesharing.util.ExpiringLruCache;
+import com.bitesharing.util.ImageMetadataStripper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Stores uploads under the SHA-256 of their bytes, sharded two levels deep by hash prefix, so the
+ * same photo uploaded twice is kept once. The stored upload is never served: the full-size image
+ * is a copy with EXIF, GPS and other embedded metadata stripped, and resized JPEG variants are
+ * rendered in the background next to it. Files uploaded before content addressing keep their flat
+ * names and get the stripped copy and variants the same way.
+ */
+@Slf4j
+@Service
+public class ImageStorageService {
+
+    public enum Size {
+        ORIGINAL, MEDIUM, THUMBNAIL
+    }
+
+    /**
+     * A file to serve; {@code fallback} is set when it stands in for a variant not rendered yet.
+     */
+    public record Resolved(Path path, boolean fallback) {
+    }
+
+    private static final Pattern CONTENT_NAME = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,5})?");
+    private static final Pattern SAFE_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+    private static final Pattern SAFE_EXTENSION = Pattern.compile("\\.[a-z0-9]{1,5}");
+
+    private final Path root;
+    private final int thumbnailEdge;
+    private final int mediumEdge;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+    private final Set<Path> rendering = ConcurrentHashMap.newKeySet();
+    // Originals whose variants could not be rendered; served as-is until the entry expires
+    private final ExpiringLruCache<Path, Boolean> failed;
+    // Stored files in a format whose metadata cannot be stripped; only their re-encoded variants are served
+    private final ExpiringLruCache<Path, Boolean> unstrippable;
+
+    public ImageStorageService(@Value("${file.upload.dir:./uploads}") String uploadDir,
+                               @Value("${file.variants.thumbnail-px:400}") int thumbnailEdge,
+                               @Value("${file.variants.medium-px:1024}") int mediumEdge,
+                               @Value("${file.variants.max-pixels:50000000}") long maxPixels,
+                               @Value("${file.variants.threads:2}") int threads,
+                               @Value("${file.variants.queue-capacity:100}") int queueCapacity,
+                               @Value("${file.variants.failure-ttl-ms:3600000}") long failureTtlMs) {
+        this.root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.thumbnailEdge = thumbnailEdge;
+        this.mediumEdge = mediumEdge;
+        this.maxPixels = maxPixels;
+        this.failed = new ExpiringLruCache<>(10_000, failureTtlMs);
+        this.unstrippable = new ExpiringLruCache<>(10_000, failureTtlMs);
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Saves the upload and returns its public file name, {@code <sha256><ext>}. An identical
+     * upload resolves to the existing file instead of writing a second copy.
+     *
+     * @throws UnsupportedImageException when the upload is not an image whose metadata can be stripped
+     */
+    public String store(MultipartFile file) throws IOException {
+        Files.createDirectories(root);
+        Path temp = Files.createTempFile(root, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            byte[] stripped = ImageMetadataStripper.strip(Files.readAllBytes(temp));
+            if (stripped == null) {
+                throw new UnsupportedImageException();
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String filename = hash + extensionOf(file.getOriginalFilename());
+            Path target = contentPath(filename);
+            if (Files.exists(target)) {
+                log.debug("Upload {} already stored, skipping write", filename);
+            } else {
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            if (!Files.isRegularFile(strippedPath(target))) {
+                writeAtomically(stripped, strippedPath(target));
+            }
+            renderVariants(target);
+            return filename;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * File to serve for a file name and size, or null when nothing matches. The original is the
+     * stripped copy, made on first request for files stored before stripping. A variant that has
+     * not been rendered yet falls back to that copy and is queued for rendering, unless rendering
+     * recently failed. Files whose format cannot be stripped serve the medium variant as their
+     * original, and nothing until it is rendered.
+     */
+    public Resolved resolve(String filename, Size size) throws IOException {
+        Path original = originalPath(filename);
+        if (original == null || !Files.isRegularFile(original)) {
+            return null;
+        }
+        Path stripped = stripped(original);
+        if (size == Size.ORIGINAL && stripped != null) {
+            return new Resolved(stripped, false);
+        }
+        // Without a stripped copy the medium re-encode is the largest size served
+        Path variant = variantPath(original, size == Size.ORIGINAL ? Size.MEDIUM : size);
+        if (Files.isRegularFile(variant)) {
+            return new Resolved(variant, false);
+        }
+        renderVariants(original);
+        return stripped != null ? new Resolved(stripped, true) : null;
+    }
+
+    public static boolean isContentAddressed(String filename) {
+        return CONTENT_NAME.matcher(filename).matches();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Path originalPath(String filename) {
+        if (isContentAddressed(filename)) {
+            return contentPath(filename);
+        }
+        if (!SAFE_NAME.matcher(filename).matches() || filename.contains("..")) {
+            return null;
+        }
+        Path legacy = root.resolve(filename).normalize();
+        return legacy.getParent().equals(root) ? legacy : null;
+    }
+
+    private Path contentPath(String filename) {
+        return root.resolve(filename.substring(0, 2)).resolve(filename.substring(2, 4)).resolve(filename);
+    }
+
+    // The stripped copy of an original, written now if missing; null when the format cannot be stripped
+    private Path stripped(Path original) throws IOException {
+        Path path = strippedPath(original);
+        if (Files.isRegularFile(path)) {
+            return path;
+        }
+        if (unstrippable.get(original) != null) {
+            return null;
+        }
+        byte[] stripped = ImageMetadataStripper.strip(Files.readAllBytes(original));
+        if (stripped == null) {
+            unstrippable.put(original, Boolean.TRUE);
+            return null;
+        }
+        writeAtomically(stripped, path);
+        return path;
+    }
+
+    private static Path strippedPath(Path original) {
+        String name = original.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0
+                ? original.resolveSibling(name.substring(0, dot) + "_original" + name.substring(dot))
+                : original.resolveSibling(name + "_original");
+    }
+
+    private Path variantPath(Path original, Size size) {
+        String name = original.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return original.resolveSibling(base + "_" + size.name().toLowerCase(Locale.ROOT) + ".jpg");
+    }
+
+    private void renderVariants(Path original) {
+        if (Files.isRegularFile(variantPath(original, Size.THUMBNAIL))
+                && Files.isRegularFile(variantPath(original, Size.MEDIUM))) {
+            return;
+        }
+        if (failed.get(original) != null || !rendering.add(original)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    render(original);
+                } catch (IOException | RuntimeException e) {
+                    failed.put(original, Boolean.TRUE);
+                    log.warn("Could not render variants for {}: {}", original.getFileName(), e.getMessage());
+                } finally {
+                    rendering.remove(original);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Rendered on a later request for the variant instead
+            rendering.remove(original);
+        }
+    }
+
+    private void render(Path original) throws IOException {
+        BufferedImage source = decode(original);
+        if (source == null) {
+            failed.put(original, Boolean.TRUE);
+            log.debug("No image reader for {}, serving original only", original.getFileName());
+            return;
+        }
+        // Largest first, so the thumbnail scales down from the medium image rather than the full one
+        BufferedImage medium = scale(source, mediumEdge);
+        write(medium, variantPath(original, Size.MEDIUM));
+        write(scale(medium, thumbnailEdge), variantPath(original, Size.THUMBNAIL));
+    }
+
+    /**
+     * Reads the dimensions from the header first and refuses images over the pixel cap, so a small
+     * file declaring huge dimensions cannot exhaust the heap. Large images are subsampled while
+     * decoding, keeping at least twice the medium edge for the final scale.
+     */
+    private BufferedImage decode(Path original) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IOException("Image is " + width + "x" + height + ", over the " + maxPixels + " pixel limit");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / (2 * mediumEdge));
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int maxEdge) {
+        double factor = Math.min(1.0, (double) maxEdge / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * factor));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * factor));
+        // Always redrawn onto an opaque RGB canvas: JPEG has no alpha, and only pixels are carried over
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private static void write(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), "variant-", ".part");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.8f);
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeAtomically(byte[] data, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), "stripped-", ".part");
+        try {
+            Files.write(temp, data);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String extensionOf(String originalFilename) {
+        if (originalFilename == null || !originalFilename.contains(".")) {
+            return "";
+        }
+        String extension = originalFilename.substring(originalFilename.lastIndexOf('.')).toLowerCase(Locale.ROOT);
+        if (extension.equals(".jpeg")) {
+            extension = ".jpg";
+        }
+        return SAFE_EXTENSION.matcher(extension).matches() ? extension : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.bitesharing.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers invalidations synchronously to subscribers in this JVM. {@link DatabaseCacheInvalidationBus}
+ * uses it for local delivery; tests use it to exercise several cache instances that share one bus.
+ */
+@Slf4j
+public class InMemoryCacheInvalidationBus implements CacheInvalidationBus {
+
+    private final ConcurrentHashMap<String, List<Consumer<Object>>> listeners = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(String cacheName, Object key) {
+        for (Consumer<Object> listener : listeners.getOrDefault(cacheName, List.of())) {
+            try {
+                listener.accept(key);
+            } catch (RuntimeException e) {
+                log.warn("Cache invalidation listener for {} failed on key {}: {}", cacheName, key, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(String cacheName, Consumer<Object> listener) {
+        listeners.computeIfAbsent(cacheName, name -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+}
@@ -0,0 +1,171 @@
+package com.bitesharing.service;
+
+import com.bitesharing.dto.LeaderboardEntry;
+import com.bitesharing.dto.PeriodScore;
+import com.bitesharing.dto.UserScore;
+import com.bitesharing.model.User;
+import com.bitesharing.repository.UserPointsDailyRepository;
+import com.bitesharing.repository.UserPointsRepository;
+import com.bitesharing.repository.UserRepository;
+import com.bitesharing.util.RankTree;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Live leaderboard over {@link RankTree}: rebuilt from user_points at startup and moved on every
+ * committed points change, so top-N pages, a user's rank and the users around them are
+ * O(log n) lookups instead of a full sort in MySQL. Windowed boards come from daily buckets.
+ */
+@Slf4j
+@Service
+public class LeaderboardService {
+
+    private static final String DAILY_BUCKETS_SEED = "user_points_daily.from_history";
+
+    private final UserPointsRepository userPointsRepository;
+    private final UserPointsDailyRepository userPointsDailyRepository;
+    private final UserRepository userRepository;
+    private final DataSeedService dataSeedService;
+    private final RankTree ranking = new RankTree();
+
+    public LeaderboardService(UserPointsRepository userPointsRepository,
+                              UserPointsDailyRepository userPointsDailyRepository,
+                              UserRepository userRepository,
+                              DataSeedService dataSeedService) {
+        this.userPointsRepository = userPointsRepository;
+        this.userPointsDailyRepository = userPointsDailyRepository;
+        this.userRepository = userRepository;
+        this.dataSeedService = dataSeedService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillDailyBuckets() {
+        try {
+            Integer buckets = dataSeedService.runOnce(DAILY_BUCKETS_SEED, userPointsDailyRepository::backfillFromHistory);
+            if (buckets != null) {
+                log.info("Seeded daily point buckets from points history ({} rows affected)", buckets);
+            }
+        } catch (DataAccessException e) {
+            log.error("Could not seed daily point buckets, retrying on next start: {}", e.getMessage(), e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        long[][] columns = {new long[1024], new long[1024]};
+        int count = 0;
+        try (Stream<UserScore> scores = userPointsRepository.streamScores()) {
+            for (UserScore score : (Iterable<UserScore>) scores::iterator) {
+                if (count == columns[0].length) {
+                    columns[0] = Arrays.copyOf(columns[0], count * 2);
+                    columns[1] = Arrays.copyOf(columns[1], count * 2);
+                }
+                columns[0][count] = score.getUserId();
+                columns[1][count] = score.getTotalPoints();
+                count++;
+            }
+        }
+        ranking.load(Arrays.copyOf(columns[0], count), Arrays.copyOf(columns[1], count));
+        log.info("Leaderboard built with {} users in {} ms", count, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Applies the new total once the surrounding transaction commits, or immediately without one.
+     * Awards for one user commit in row-lock order, but their afterCommit callbacks can run in any
+     * order; totals only grow, so the board keeps the highest total it has been given.
+     */
+    public void onPointsChanged(Long userId, int totalPoints) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ranking.raise(userId, totalPoints);
+                }
+            });
+        } else {
+            ranking.raise(userId, totalPoints);
+        }
+    }
+
+    public void onUserRemoved(Long userId) {
+        ranking.remove(userId);
+    }
+
+    public List<LeaderboardEntry> getTop(int offset, int limit) {
+        return toEntries(ranking.range(offset, limit));
+    }
+
+    /**
+     * Top users by points earned between the two dates, inclusive, summed from daily buckets.
+     */
+    public List<LeaderboardEntry> getPeriodTop(LocalDate from, LocalDate to, int page, int size) {
+        List<PeriodScore> scores = userPointsDailyRepository.findTopBetween(from, to, PageRequest.of(page, size));
+        if (scores.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, String> names = namesOf(scores.stream().map(PeriodScore::getUserId).toList());
+        int firstRank = page * size + 1;
+        List<LeaderboardEntry> entries = new ArrayList<>(scores.size());
+        for (int i = 0; i < scores.size(); i++) {
+            PeriodScore score = scores.get(i);
+            entries.add(new LeaderboardEntry(firstRank + i, score.getUserId(), names.get(score.getUserId()),
+                    score.getPoints(), null));
+        }
+        return entries;
+    }
+
+    public LeaderboardEntry getRank(Long userId) {
+        int rank = ranking.rank(userId);
+        if (rank < 0) {
+            return null;
+        }
+        List<LeaderboardEntry> entries = toEntries(ranking.range(rank - 1, 1));
+        return entries.isEmpty() ? null : entries.get(0);
+    }
+
+    public List<LeaderboardEntry> getAround(Long userId, int radius) {
+        int rank = ranking.rank(userId);
+        if (rank < 0) {
+            return List.of();
+        }
+        int offset = Math.max(0, rank - 1 - radius);
+        return toEntries(ranking.range(offset, rank - 1 - offset + radius + 1));
+    }
+
+    public int size() {
+        return ranking.size();
+    }
+
+    private List<LeaderboardEntry> toEntries(List<RankTree.Ranked> ranked) {
+        if (ranked.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, String> names = namesOf(ranked.stream().map(RankTree.Ranked::id).toList());
+        return ranked.stream()
+                .map(r -> new LeaderboardEntry(r.rank(), r.id(), names.get(r.id()), r.score(),
+                        GamificationService.calculateLevel((int) r.score())))
+                .toList();
+    }
+
+    private Map<Long, String> namesOf(List<Long> userIds) {
+        return userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, User::getFullName, (a, b) -> a));
+    }
+}
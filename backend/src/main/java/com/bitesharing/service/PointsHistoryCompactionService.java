@@ -0,0 +1,87 @@
+package com.bitesharing.service;
+
+import com.bitesharing.dto.PointsRollup;
+import com.bitesharing.model.PointsHistory;
+import com.bitesharing.repository.PointsHistoryRepository;
+import com.bitesharing.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Folds per-event points history older than the retention window into one row per user, month
+ * and related entity type. Whole calendar months are compacted at a time, oldest first, each in
+ * its own transaction, so totals shown in history stay exact.
+ */
+@Slf4j
+@Service
+public class PointsHistoryCompactionService {
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("MMMM yyyy", Locale.ENGLISH);
+
+    private final PointsHistoryRepository pointsHistoryRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long retentionDays;
+
+    public PointsHistoryCompactionService(PointsHistoryRepository pointsHistoryRepository,
+                                          UserRepository userRepository,
+                                          TransactionTemplate transactionTemplate,
+                                          @Value("${gamification.history.retention-days:90}") long retentionDays) {
+        this.pointsHistoryRepository = pointsHistoryRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.retentionDays = retentionDays;
+    }
+
+    @Scheduled(initialDelayString = "${gamification.history.compact-ms:86400000}",
+            fixedDelayString = "${gamification.history.compact-ms:86400000}")
+    public void scheduledCompact() {
+        compact();
+    }
+
+    public int compact() {
+        // Only months that lie entirely before the retention cutoff
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays)
+                .withDayOfMonth(1).toLocalDate().atStartOfDay();
+        int months = 0;
+        LocalDateTime oldest;
+        while ((oldest = pointsHistoryRepository.findOldestEventBefore(cutoff)) != null) {
+            LocalDateTime from = oldest.withDayOfMonth(1).toLocalDate().atStartOfDay();
+            LocalDateTime to = from.plusMonths(1);
+            Integer rolled = transactionTemplate.execute(status -> compactMonth(from, to));
+            log.info("Rolled {} points history events of {} into monthly summaries", rolled, from.toLocalDate());
+            months++;
+        }
+        return months;
+    }
+
+    private int compactMonth(LocalDateTime from, LocalDateTime to) {
+        List<PointsRollup> rollups = pointsHistoryRepository.rollupEvents(from, to);
+        List<PointsHistory> summaries = new ArrayList<>(rollups.size());
+        int events = 0;
+        for (PointsRollup rollup : rollups) {
+            PointsHistory summary = new PointsHistory();
+            summary.setUser(userRepository.getReferenceById(rollup.getUserId()));
+            summary.setPoints(rollup.getPoints().intValue());
+            summary.setReason(String.format("%d %s awards in %s", rollup.getEvents(),
+                    rollup.getRelatedEntityType().name().toLowerCase(), MONTH_FORMAT.format(from)));
+            summary.setRelatedEntityType(rollup.getRelatedEntityType());
+            summary.setEventCount(rollup.getEvents().intValue());
+            summary.setCreatedAt(from);
+            summaries.add(summary);
+            events += rollup.getEvents().intValue();
+        }
+        pointsHistoryRepository.deleteEvents(from, to);
+        pointsHistoryRepository.saveAll(summaries);
+        return events;
+    }
+}
@@ -1,17 +1,28 @@
 package com.bitesharing.service;
 
+import com.bitesharing.dto.CursorPage;
+import com.bitesharing.dto.RequestRow;
+import com.bitesharing.exception.DonationAlreadyClaimedException;
 import com.bitesharing.model.Donation;
 import com.bitesharing.model.PointsHistory;
 import com.bitesharing.model.Request;
 import com.bitesharing.model.User;
 import com.bitesharing.repository.DonationRepository;
 import com.bitesharing.repository.RequestRepository;
-import com.bitesharing.repository.UserRepository;
+import com.bitesharing.util.NdjsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -19,35 +30,54 @@ public class RequestService {
 
     private final RequestRepository requestRepository;
     private final DonationRepository donationRepository;
-    private final UserRepository userRepository;
-    private final GamificationService gamificationService;
+    private final UserCache userCache;
+    private final GamificationOutbox gamificationOutbox;
+    private final List<DonationChangeListener> donationChangeListeners;
+    private final VolunteerDispatchService volunteerDispatchService;
+    private final TrackingIngestionService trackingIngestionService;
+    private final ObjectMapper objectMapper;
 
     @Transactional
     public Request createRequest(Long donationId, Long requesterId, Request.RequesterType requesterType) {
-        Donation donation = donationRepository.findById(donationId)
-                .orElseThrow(() -> new RuntimeException("Donation not found"));
-
-        if (donation.getStatus() != Donation.DonationStatus.PENDING) {
-            throw new RuntimeException("Donation is not available");
-        }
-
         User requester = null;
         if (requesterId != null) {
-            requester = userRepository.findById(requesterId)
+            requester = userCache.findById(requesterId)
                     .orElseThrow(() -> new RuntimeException("Requester not found"));
         }
 
+        // Conditional update instead of read-check-write: exactly one concurrent claimer sees a row change
+        int claimed = donationRepository.updateStatusWhere(List.of(donationId),
+                Donation.DonationStatus.PENDING, Donation.DonationStatus.ACCEPTED, LocalDateTime.now());
+        if (claimed == 0) {
+            if (!donationRepository.existsById(donationId)) {
+                throw new RuntimeException("Donation not found");
+            }
+            throw new DonationAlreadyClaimedException(donationId);
+        }
+
+        Donation donation = donationRepository.findById(donationId)
+                .orElseThrow(() -> new RuntimeException("Donation not found"));
+
         Request request = new Request();
         request.setDonation(donation);
         request.setRequester(requester);
         request.setRequesterType(requesterType);
         request.setStatus(Request.RequestStatus.PENDING);
+        volunteerDispatchService.dispatch(request, donation);
 
         request = requestRepository.save(request);
-
-        // Update donation status
-        donation.setStatus(Donation.DonationStatus.ACCEPTED);
-        donationRepository.save(donation);
+        trackingIngestionService.onAssignmentChanged(request);
+        // A claim that rolls back must not drop the donation from the nearby and search indexes
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    donationChangeListeners.forEach(listener -> listener.onStatusChanged(donationId, Donation.DonationStatus.ACCEPTED));
+                }
+            });
+        } else {
+            donationChangeListeners.forEach(listener -> listener.onStatusChanged(donationId, Donation.DonationStatus.ACCEPTED));
+        }
 
         return request;
     }
@@ -56,6 +86,21 @@ public class RequestService {
         return requestRepository.findAll();
     }
 
+    public CursorPage<RequestRow> getRequestPage(Long cursor, int size, Request.RequestStatus status,
+                                                 Request.RequesterType requesterType, LocalDateTime from, LocalDateTime to) {
+        List<RequestRow> rows = requestRepository.findRowsBefore(cursor, status, requesterType, from, to, PageRequest.of(0, size));
+        Long nextCursor = rows.size() == size ? rows.get(rows.size() - 1).getId() : null;
+        return new CursorPage<>(rows, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public long streamRequests(Request.RequestStatus status, Request.RequesterType requesterType,
+                               LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        try (Stream<RequestRow> rows = requestRepository.streamRows(status, requesterType, from, to)) {
+            return NdjsonWriter.write(objectMapper, out, rows);
+        }
+    }
+
     public List<Request> getRequestsByRequester(Long requesterId) {
         return requestRepository.findByRequesterId(requesterId);
     }
@@ -68,6 +113,18 @@ public class RequestService {
         return requestRepository.findByDonationId(donationId);
     }
 
+    public List<RequestRow> getRequestRowsByRequester(Long requesterId) {
+        return requestRepository.findRowsByRequesterId(requesterId);
+    }
+
+    public List<RequestRow> getRequestRowsByVolunteer(Long volunteerId) {
+        return requestRepository.findRowsByAssignedVolunteerId(volunteerId);
+    }
+
+    public List<RequestRow> getRequestRowsByDonation(Long donationId) {
+        return requestRepository.findRowsByDonationId(donationId);
+    }
+
     public Request getRequestById(Long id) {
         return requestRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Request not found"));
@@ -76,16 +133,26 @@ public class RequestService {
     @Transactional
     public Request assignVolunteer(Long requestId, Long volunteerId) {
         Request request = getRequestById(requestId);
-        User volunteer = userRepository.findById(volunteerId)
+        User volunteer = userCache.findById(volunteerId)
                 .orElseThrow(() -> new RuntimeException("Volunteer not found"));
 
         if (volunteer.getUserType() != User.UserType.VOLUNTEER) {
             throw new RuntimeException("User is not a volunteer");
         }
 
+        User previousVolunteer = request.getAssignedVolunteer();
+        boolean wasActive = VolunteerDispatchService.ACTIVE_STATUSES.contains(request.getStatus());
+
         request.setAssignedVolunteer(volunteer);
         request.setStatus(Request.RequestStatus.ACCEPTED);
-        return requestRepository.save(request);
+        Request savedRequest = requestRepository.save(request);
+
+        if (previousVolunteer != null && wasActive) {
+            volunteerDispatchService.onReleased(previousVolunteer.getId());
+        }
+        volunteerDispatchService.onAssigned(volunteerId);
+        trackingIngestionService.onAssignmentChanged(savedRequest);
+        return savedRequest;
     }
 
     @Transactional
@@ -94,11 +161,18 @@ public class RequestService {
         Request.RequestStatus oldStatus = request.getStatus();
         request.setStatus(status);
         Request savedRequest = requestRepository.save(request);
-        
+
+        if (savedRequest.getAssignedVolunteer() != null
+                && VolunteerDispatchService.ACTIVE_STATUSES.contains(oldStatus)
+                && !VolunteerDispatchService.ACTIVE_STATUSES.contains(status)) {
+            volunteerDispatchService.onReleased(savedRequest.getAssignedVolunteer().getId());
+        }
+        trackingIngestionService.onAssignmentChanged(savedRequest);
+
         // Award points for completed delivery
         if (status == Request.RequestStatus.DELIVERED && oldStatus != Request.RequestStatus.DELIVERED) {
             if (savedRequest.getAssignedVolunteer() != null) {
-                gamificationService.addPoints(savedRequest.getAssignedVolunteer().getId(), 15,
+                gamificationOutbox.award(savedRequest.getAssignedVolunteer().getId(), 15,
                         "Completed delivery for: " + savedRequest.getDonation().getFoodName(),
                         PointsHistory.RelatedEntityType.DELIVERY, savedRequest.getId());
             }
@@ -107,7 +181,7 @@ public class RequestService {
         // Award points for composting
         if (status == Request.RequestStatus.COMPOSTED && oldStatus != Request.RequestStatus.COMPOSTED) {
             if (savedRequest.getRequester() != null) {
-                gamificationService.addPoints(savedRequest.getRequester().getId(), 20,
+                gamificationOutbox.award(savedRequest.getRequester().getId(), 20,
                         "Composted: " + savedRequest.getDonation().getFoodName(),
                         PointsHistory.RelatedEntityType.COMPOST, savedRequest.getId());
             }
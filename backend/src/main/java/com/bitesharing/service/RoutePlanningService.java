@@ -0,0 +1,106 @@
+package com.bitesharing.service;
+
+import com.bitesharing.dto.RoutePlan;
+import com.bitesharing.dto.RouteStop;
+import com.bitesharing.dto.VolunteerPosition;
+import com.bitesharing.model.Donation;
+import com.bitesharing.model.Request;
+import com.bitesharing.model.User;
+import com.bitesharing.repository.RequestRepository;
+import com.bitesharing.util.GeoUtils;
+import com.bitesharing.util.RoutePlanner;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Orders a volunteer's open requests into one multi-stop route: every outstanding pickup first,
+ * then the drop-offs, each leg ordered by {@link RoutePlanner}.
+ */
+@Service
+@RequiredArgsConstructor
+public class RoutePlanningService {
+
+    private final RequestRepository requestRepository;
+    private final VolunteerDispatchService volunteerDispatchService;
+
+    @Transactional(readOnly = true)
+    public RoutePlan planRoute(Long volunteerId, Double startLatitude, Double startLongitude) {
+        List<Request> requests = requestRepository.findRouteRequests(volunteerId, VolunteerDispatchService.ACTIVE_STATUSES);
+
+        List<RouteStop> pickups = new ArrayList<>();
+        List<RouteStop> dropoffs = new ArrayList<>();
+        List<Long> unrouted = new ArrayList<>();
+        for (Request request : requests) {
+            Donation donation = request.getDonation();
+            User requester = request.getRequester();
+            boolean needsPickup = request.getStatus() == Request.RequestStatus.ACCEPTED;
+            boolean canPickUp = GeoUtils.isValidCoordinate(donation.getLatitude(), donation.getLongitude());
+            boolean canDropOff = requester != null
+                    && GeoUtils.isValidCoordinate(requester.getLatitude(), requester.getLongitude());
+
+            if ((needsPickup && !canPickUp) || !canDropOff) {
+                unrouted.add(request.getId());
+                continue;
+            }
+            if (needsPickup) {
+                pickups.add(new RouteStop(request.getId(), RouteStop.StopType.PICKUP,
+                        donation.getLatitude(), donation.getLongitude(),
+                        request.getPickupAddress() != null ? request.getPickupAddress() : donation.getAddress(), null));
+            }
+            dropoffs.add(new RouteStop(request.getId(), RouteStop.StopType.DROPOFF,
+                    requester.getLatitude(), requester.getLongitude(),
+                    request.getDeliveryAddress() != null ? request.getDeliveryAddress() : requester.getAddress(), null));
+        }
+
+        if (!GeoUtils.isValidCoordinate(startLatitude, startLongitude)) {
+            VolunteerPosition position = volunteerDispatchService.getPosition(volunteerId).orElse(null);
+            if (position != null) {
+                startLatitude = position.getLatitude();
+                startLongitude = position.getLongitude();
+            } else {
+                RouteStop first = !pickups.isEmpty() ? pickups.get(0) : !dropoffs.isEmpty() ? dropoffs.get(0) : null;
+                startLatitude = first != null ? first.getLatitude() : null;
+                startLongitude = first != null ? first.getLongitude() : null;
+            }
+        }
+
+        List<RouteStop> stops = new ArrayList<>(pickups.size() + dropoffs.size());
+        double total = 0;
+        if (startLatitude != null) {
+            double[] cursor = {startLatitude, startLongitude};
+            total += appendOrdered(pickups, cursor, stops);
+            total += appendOrdered(dropoffs, cursor, stops);
+        }
+
+        return new RoutePlan(volunteerId, startLatitude, startLongitude, round(total), stops, unrouted);
+    }
+
+    private double appendOrdered(List<RouteStop> leg, double[] cursor, List<RouteStop> route) {
+        double[] latitudes = new double[leg.size()];
+        double[] longitudes = new double[leg.size()];
+        for (int i = 0; i < leg.size(); i++) {
+            latitudes[i] = leg.get(i).getLatitude();
+            longitudes[i] = leg.get(i).getLongitude();
+        }
+
+        double distance = 0;
+        for (int index : RoutePlanner.order(cursor[0], cursor[1], latitudes, longitudes)) {
+            RouteStop stop = leg.get(index);
+            double legDistance = GeoUtils.haversineKm(cursor[0], cursor[1], stop.getLatitude(), stop.getLongitude());
+            stop.setLegDistanceKm(round(legDistance));
+            route.add(stop);
+            distance += legDistance;
+            cursor[0] = stop.getLatitude();
+            cursor[1] = stop.getLongitude();
+        }
+        return distance;
+    }
+
+    private static double round(double km) {
+        return Math.round(km * 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,188 @@
+package com.bitesharing.service;
+
+import com.bitesharing.config.SchedulingConfig;
+import com.bitesharing.dto.TopicMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Coalescing fan-out for high-frequency topics. Each destination holds only its newest pending
+ * frame; a publish that lands before the previous frame went out replaces it. Frames are sent at
+ * most once per interval per destination, and the interval stretches while the broker's outbound
+ * queue is backed up.
+ */
+@Slf4j
+@Service
+public class TrackingBroadcaster {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ThreadPoolTaskExecutor outboundExecutor;
+    private final long minIntervalNanos;
+    private final long maxIntervalNanos;
+    private final int backlogThreshold;
+    private final long idleEvictNanos;
+
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    public TrackingBroadcaster(SimpMessagingTemplate messagingTemplate,
+                               @Qualifier("clientOutboundExecutor") ThreadPoolTaskExecutor outboundExecutor,
+                               @Value("${tracking.fanout.min-interval-ms:1000}") long minIntervalMs,
+                               @Value("${tracking.fanout.max-interval-ms:5000}") long maxIntervalMs,
+                               @Value("${tracking.fanout.backlog-threshold:1000}") int backlogThreshold,
+                               @Value("${tracking.fanout.idle-evict-minutes:10}") long idleEvictMinutes) {
+        this.messagingTemplate = messagingTemplate;
+        this.outboundExecutor = outboundExecutor;
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMs);
+        this.maxIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(minIntervalMs, maxIntervalMs));
+        this.backlogThreshold = Math.max(1, backlogThreshold);
+        this.idleEvictNanos = TimeUnit.MINUTES.toNanos(idleEvictMinutes);
+    }
+
+    public void publish(String destination, Object payload) {
+        publish(destination, destination, payload);
+    }
+
+    /**
+     * Coalesces under {@code slot} rather than the destination, so different kinds of frames
+     * sharing a destination do not replace each other.
+     */
+    public void publish(String destination, String slot, Object payload) {
+        Topic topic = topics.computeIfAbsent(slot, key -> new Topic(key, destination));
+        topic.lastPublishNanos = System.nanoTime();
+        if (topic.pending.getAndSet(payload) != null) {
+            topic.dropped.incrementAndGet();
+        }
+        dirty.add(slot);
+    }
+
+    /**
+     * Bypasses coalescing for rare frames that must not be superseded.
+     */
+    public void publishNow(String destination, Object payload) {
+        messagingTemplate.convertAndSend(destination, payload);
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.fanout.tick-ms:50}", scheduler = SchedulingConfig.TRACKING_SCHEDULER)
+    public void drain() {
+        long now = System.nanoTime();
+        long interval = currentIntervalNanos();
+        for (String slot : dirty) {
+            Topic topic = topics.get(slot);
+            if (topic == null) {
+                dirty.remove(slot);
+                continue;
+            }
+            if (now - topic.lastSentNanos < interval) {
+                continue;
+            }
+            // Clear the mark before taking the frame so a concurrent publish re-marks the topic
+            dirty.remove(slot);
+            Object frame = topic.pending.getAndSet(null);
+            if (frame != null) {
+                try {
+                    messagingTemplate.convertAndSend(topic.destination, frame);
+                    topic.recordSend(now);
+                } catch (Exception e) {
+                    topic.dropped.incrementAndGet();
+                    log.warn("Dropping frame for {}: {}", slot, e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.fanout.evict-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        topics.values().removeIf(topic -> topic.pending.get() == null && now - topic.lastPublishNanos > idleEvictNanos);
+    }
+
+    public List<TopicMetrics> getMetrics() {
+        long now = System.nanoTime();
+        List<TopicMetrics> metrics = new ArrayList<>(topics.size());
+        for (Topic topic : topics.values()) {
+            metrics.add(new TopicMetrics(topic.slot, topic.rate(now), topic.sent.get(),
+                    topic.dropped.get(), topic.pending.get() != null ? 1 : 0));
+        }
+        metrics.sort(Comparator.comparing(TopicMetrics::getSendsPerSecond).reversed());
+        return metrics;
+    }
+
+    public Map<String, Object> getSummary() {
+        return Map.of(
+                "topics", topics.size(),
+                "pendingTopics", dirty.size(),
+                "outboundQueueDepth", outboundQueueDepth(),
+                "currentIntervalMs", TimeUnit.NANOSECONDS.toMillis(currentIntervalNanos()));
+    }
+
+    private long currentIntervalNanos() {
+        int backlog = outboundQueueDepth();
+        if (backlog == 0) {
+            return minIntervalNanos;
+        }
+        return Math.min(maxIntervalNanos, minIntervalNanos + minIntervalNanos * backlog / backlogThreshold);
+    }
+
+    private int outboundQueueDepth() {
+        return outboundExecutor.getThreadPoolExecutor() != null
+                ? outboundExecutor.getThreadPoolExecutor().getQueue().size() : 0;
+    }
+
+    private static final class Topic {
+        private static final long RATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+        final String slot;
+        final String destination;
+        final AtomicReference<Object> pending = new AtomicReference<>();
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+        volatile long lastSentNanos = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+        volatile long lastPublishNanos = System.nanoTime();
+
+        // Sends are only recorded from the drain thread
+        private long windowStartNanos = System.nanoTime();
+        private long windowSends;
+        private volatile double lastRate;
+
+        Topic(String slot, String destination) {
+            this.slot = slot;
+            this.destination = destination;
+        }
+
+        void recordSend(long now) {
+            sent.incrementAndGet();
+            lastSentNanos = now;
+            windowSends++;
+            if (now - windowStartNanos >= RATE_WINDOW_NANOS) {
+                lastRate = windowSends * 1e9 / (now - windowStartNanos);
+                windowStartNanos = now;
+                windowSends = 0;
+            }
+        }
+
+        double rate(long now) {
+            if (now - lastSentNanos >= RATE_WINDOW_NANOS) {
+                return 0.0;
+            }
+            long elapsed = now - windowStartNanos;
+            // Until the first window closes report the partial one
+            return lastRate > 0 || elapsed <= 0 ? lastRate : windowSends * 1e9 / elapsed;
+        }
+    }
+}
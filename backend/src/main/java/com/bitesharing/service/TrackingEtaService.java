@@ -0,0 +1,146 @@
+package com.bitesharing.service;
+
+import com.bitesharing.dto.DeliveryTargets;
+import com.bitesharing.dto.RequestAssignment;
+import com.bitesharing.dto.TrackingEvent;
+import com.bitesharing.dto.TrackingPoint;
+import com.bitesharing.model.Request;
+import com.bitesharing.repository.RequestRepository;
+import com.bitesharing.util.GeoUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming ETA over incoming pings. Each active request keeps a fixed-size state (its two
+ * targets, the previous fix and a smoothed speed) that is advanced per point; the tracking
+ * history is never re-read. Targets are the donation's coordinates for pickup and the
+ * requester's for drop-off, loaded once per request.
+ */
+@Service
+public class TrackingEtaService {
+
+    private static final double SPEED_SMOOTHING = 0.3;
+    private static final double MAX_PLAUSIBLE_KMH = 150;
+    private static final long MIN_STEP_SECONDS = 1;
+
+    private final RequestRepository requestRepository;
+    private final TrackingBroadcaster trackingBroadcaster;
+    private final double arrivalRadiusKm;
+    private final double defaultSpeedKmh;
+    private final double minSpeedKmh;
+    private final double detourFactor;
+
+    private final Map<Long, State> states = new ConcurrentHashMap<>();
+
+    public TrackingEtaService(RequestRepository requestRepository,
+                              TrackingBroadcaster trackingBroadcaster,
+                              @Value("${tracking.eta.arrival-radius-m:75}") double arrivalRadiusMeters,
+                              @Value("${tracking.eta.default-speed-kmh:20}") double defaultSpeedKmh,
+                              @Value("${tracking.eta.min-speed-kmh:5}") double minSpeedKmh,
+                              @Value("${tracking.eta.detour-factor:1.3}") double detourFactor) {
+        this.requestRepository = requestRepository;
+        this.trackingBroadcaster = trackingBroadcaster;
+        this.arrivalRadiusKm = arrivalRadiusMeters / 1000.0;
+        this.defaultSpeedKmh = defaultSpeedKmh;
+        this.minSpeedKmh = minSpeedKmh;
+        this.detourFactor = detourFactor;
+    }
+
+    public void onPoint(TrackingPoint point, RequestAssignment assignment) {
+        State state = states.computeIfAbsent(point.getRequestId(), this::loadState);
+        String destination = TrackingIngestionService.TRACKING_TOPIC_PREFIX + point.getRequestId();
+
+        TrackingEvent arrival;
+        TrackingEvent eta;
+        synchronized (state) {
+            state.advance(point);
+            if (assignment.getStatus() == Request.RequestStatus.PICKED_UP) {
+                state.pickedUp = true;
+            }
+            TrackingEvent.Target target = state.pickedUp ? TrackingEvent.Target.DROPOFF : TrackingEvent.Target.PICKUP;
+            double[] coords = target == TrackingEvent.Target.PICKUP ? state.pickup : state.dropoff;
+            if (coords == null) {
+                return;
+            }
+
+            double distanceKm = GeoUtils.haversineKm(point.getLatitude(), point.getLongitude(), coords[0], coords[1]);
+            arrival = null;
+            if (distanceKm <= arrivalRadiusKm) {
+                if (target == TrackingEvent.Target.PICKUP) {
+                    state.pickedUp = true;
+                    arrival = event(point, TrackingEvent.EventType.ARRIVED, target, distanceKm, state.speedKmh, 0);
+                } else if (!state.arrivedDropoff) {
+                    state.arrivedDropoff = true;
+                    arrival = event(point, TrackingEvent.EventType.ARRIVED, target, distanceKm, state.speedKmh, 0);
+                }
+            }
+
+            double speed = Double.isNaN(state.speedKmh) ? defaultSpeedKmh : Math.max(minSpeedKmh, state.speedKmh);
+            long etaSeconds = Math.round(distanceKm * detourFactor / speed * 3600);
+            eta = event(point, TrackingEvent.EventType.ETA, target, distanceKm, state.speedKmh, etaSeconds);
+        }
+
+        if (arrival != null) {
+            trackingBroadcaster.publishNow(destination, arrival);
+        }
+        trackingBroadcaster.publish(destination, destination + "#eta", eta);
+    }
+
+    public void forget(Long requestId) {
+        states.remove(requestId);
+    }
+
+    private State loadState(Long requestId) {
+        DeliveryTargets targets = requestRepository.findDeliveryTargets(requestId).orElse(null);
+        State state = new State();
+        if (targets != null) {
+            if (GeoUtils.isValidCoordinate(targets.getPickupLatitude(), targets.getPickupLongitude())) {
+                state.pickup = new double[]{targets.getPickupLatitude(), targets.getPickupLongitude()};
+            }
+            if (GeoUtils.isValidCoordinate(targets.getDropoffLatitude(), targets.getDropoffLongitude())) {
+                state.dropoff = new double[]{targets.getDropoffLatitude(), targets.getDropoffLongitude()};
+            }
+        }
+        return state;
+    }
+
+    private static TrackingEvent event(TrackingPoint point, TrackingEvent.EventType type, TrackingEvent.Target target,
+                                       double distanceKm, double speedKmh, long etaSeconds) {
+        return new TrackingEvent(point.getRequestId(), type, target, point.getLatitude(), point.getLongitude(),
+                Math.round(distanceKm * 1000.0) / 1000.0,
+                Double.isNaN(speedKmh) ? null : Math.round(speedKmh * 10.0) / 10.0,
+                etaSeconds, point.getTimestamp().plusSeconds(etaSeconds), point.getTimestamp());
+    }
+
+    private static final class State {
+        double[] pickup;
+        double[] dropoff;
+        boolean pickedUp;
+        boolean arrivedDropoff;
+        TrackingPoint previous;
+        double speedKmh = Double.NaN;
+
+        void advance(TrackingPoint point) {
+            if (previous != null) {
+                long seconds = Duration.between(previous.getTimestamp(), point.getTimestamp()).getSeconds();
+                if (seconds >= MIN_STEP_SECONDS) {
+                    double stepKm = GeoUtils.haversineKm(previous.getLatitude(), previous.getLongitude(),
+                            point.getLatitude(), point.getLongitude());
+                    double instant = stepKm / seconds * 3600;
+                    // GPS jumps would wreck the average; skip them rather than clamp
+                    if (instant <= MAX_PLAUSIBLE_KMH) {
+                        speedKmh = Double.isNaN(speedKmh) ? instant
+                                : SPEED_SMOOTHING * instant + (1 - SPEED_SMOOTHING) * speedKmh;
+                    }
+                } else {
+                    return;
+                }
+            }
+            previous = point;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.bitesharing.service;
+
+import com.bitesharing.config.SchedulingConfig;
+import com.bitesharing.dto.RequestAssignment;
+import com.bitesharing.dto.TrackingPoint;
+import com.bitesharing.exception.TrackingBackpressureException;
+import com.bitesharing.model.Request;
+import com.bitesharing.repository.RequestRepository;
+import com.bitesharing.util.GeoUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind path for GPS pings. A ping is checked against an in-memory map of active
+ * request assignments, handed to the fan-out stage and kept as the request's latest position;
+ * persistence happens off the request thread in multi-row JDBC batches. When the buffer is full
+ * callers wait briefly and are then turned away instead of growing the backlog.
+ */
+@Slf4j
+@Service
+public class TrackingIngestionService {
+
+    public static final String TRACKING_TOPIC_PREFIX = "/topic/tracking/";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO tracking (request_id, volunteer_id, latitude, longitude, timestamp) VALUES (?, ?, ?, ?, ?)";
+
+    private final RequestRepository requestRepository;
+    private final TrajectoryService trajectoryService;
+    private final VolunteerDispatchService volunteerDispatchService;
+    private final TrackingBroadcaster trackingBroadcaster;
+    private final TrackingEtaService trackingEtaService;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, RequestAssignment> assignments = new ConcurrentHashMap<>();
+    private final Map<Long, TrackingPoint> latest = new ConcurrentHashMap<>();
+    private final BlockingQueue<TrackingPoint> pending;
+    private final int batchSize;
+    private final long offerTimeoutMs;
+
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public TrackingIngestionService(RequestRepository requestRepository,
+                                    TrajectoryService trajectoryService,
+                                    VolunteerDispatchService volunteerDispatchService,
+                                    TrackingBroadcaster trackingBroadcaster,
+                                    TrackingEtaService trackingEtaService,
+                                    JdbcTemplate jdbcTemplate,
+                                    @Value("${tracking.ingest.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${tracking.ingest.batch-size:500}") int batchSize,
+                                    @Value("${tracking.ingest.offer-timeout-ms:50}") long offerTimeoutMs) {
+        this.requestRepository = requestRepository;
+        this.trajectoryService = trajectoryService;
+        this.volunteerDispatchService = volunteerDispatchService;
+        this.trackingBroadcaster = trackingBroadcaster;
+        this.trackingEtaService = trackingEtaService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.offerTimeoutMs = offerTimeoutMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAssignments() {
+        assignments.clear();
+        requestRepository.findAssignmentsByStatusIn(VolunteerDispatchService.ACTIVE_STATUSES)
+                .forEach(assignment -> assignments.put(assignment.getRequestId(), assignment));
+        log.info("Tracking ingestion primed with {} active assignments", assignments.size());
+    }
+
+    public void onAssignmentChanged(Request request) {
+        if (request.getAssignedVolunteer() != null
+                && VolunteerDispatchService.ACTIVE_STATUSES.contains(request.getStatus())) {
+            assignments.put(request.getId(), new RequestAssignment(request.getId(),
+                    request.getAssignedVolunteer().getId(), request.getStatus()));
+        } else {
+            assignments.remove(request.getId());
+            latest.remove(request.getId());
+            trackingEtaService.forget(request.getId());
+        }
+    }
+
+    public TrackingPoint ingest(Long requestId, Long volunteerId, Double latitude, Double longitude) {
+        if (!GeoUtils.isValidCoordinate(latitude, longitude)) {
+            throw new RuntimeException("Invalid coordinates");
+        }
+        RequestAssignment assignment = resolveAssignment(requestId);
+        if (assignment == null || !Objects.equals(assignment.getVolunteerId(), volunteerId)) {
+            throw new RuntimeException("Volunteer is not assigned to an active request " + requestId);
+        }
+
+        TrackingPoint point = new TrackingPoint(requestId, volunteerId, latitude, longitude, LocalDateTime.now());
+        try {
+            if (!pending.offer(point, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejected.incrementAndGet();
+                throw new TrackingBackpressureException();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TrackingBackpressureException();
+        }
+
+        latest.put(requestId, point);
+        volunteerDispatchService.updatePosition(volunteerId, latitude, longitude);
+        trackingBroadcaster.publish(TRACKING_TOPIC_PREFIX + requestId, point);
+        trackingEtaService.onPoint(point, assignment);
+        return point;
+    }
+
+    public Optional<TrackingPoint> getLatest(Long requestId) {
+        TrackingPoint point = latest.get(requestId);
+        if (point != null) {
+            return Optional.of(point);
+        }
+        // Cold start or a finished request: fall back to what was persisted
+        return trajectoryService.getLastPoint(requestId);
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.ingest.flush-ms:200}", scheduler = SchedulingConfig.TRACKING_SCHEDULER)
+    public void flush() {
+        List<TrackingPoint> batch = new ArrayList<>(batchSize);
+        while (pending.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public int getQueueDepth() {
+        return pending.size();
+    }
+
+    public Map<String, Long> getStats() {
+        return Map.of(
+                "queueDepth", (long) pending.size(),
+                "queueRemainingCapacity", (long) pending.remainingCapacity(),
+                "activeAssignments", (long) assignments.size(),
+                "persisted", persisted.get(),
+                "rejected", rejected.get(),
+                "failed", failed.get());
+    }
+
+    private RequestAssignment resolveAssignment(Long requestId) {
+        RequestAssignment cached = assignments.get(requestId);
+        if (cached != null) {
+            return cached;
+        }
+        RequestAssignment loaded = requestRepository.findAssignment(requestId).orElse(null);
+        if (loaded == null || loaded.getVolunteerId() == null
+                || !VolunteerDispatchService.ACTIVE_STATUSES.contains(loaded.getStatus())) {
+            return null;
+        }
+        assignments.putIfAbsent(requestId, loaded);
+        return loaded;
+    }
+
+    private void write(List<TrackingPoint> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, point) -> {
+                statement.setLong(1, point.getRequestId());
+                statement.setLong(2, point.getVolunteerId());
+                statement.setDouble(3, point.getLatitude());
+                statement.setDouble(4, point.getLongitude());
+                statement.setTimestamp(5, Timestamp.valueOf(point.getTimestamp()));
+            });
+            persisted.addAndGet(batch.size());
+        } catch (Exception e) {
+            // The points were already broadcast; losing history beats stalling live tracking
+            failed.addAndGet(batch.size());
+            log.error("Failed to persist {} tracking points: {}", batch.size(), e.getMessage(), e);
+        }
+    }
+}
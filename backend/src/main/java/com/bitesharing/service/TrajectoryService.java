@@ -0,0 +1,168 @@
+package com.bitesharing.service;
+
+import com.bitesharing.dto.TrackingPoint;
+import com.bitesharing.model.Request;
+import com.bitesharing.model.Tracking;
+import com.bitesharing.model.TrackingTrajectory;
+import com.bitesharing.repository.RequestRepository;
+import com.bitesharing.repository.TrackingRepository;
+import com.bitesharing.repository.TrackingTrajectoryRepository;
+import com.bitesharing.util.TrajectoryCodec;
+import com.bitesharing.util.TrajectorySimplifier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compacts the raw tracking rows of delivered requests into one simplified, delta-encoded
+ * trajectory and serves history from whichever form a request currently has.
+ */
+@Slf4j
+@Service
+public class TrajectoryService {
+
+    private static final int COMPACT_BATCH = 100;
+
+    private final TrackingRepository trackingRepository;
+    private final TrackingTrajectoryRepository trajectoryRepository;
+    private final RequestRepository requestRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final double toleranceMeters;
+    private final Duration grace;
+
+    public TrajectoryService(TrackingRepository trackingRepository,
+                             TrackingTrajectoryRepository trajectoryRepository,
+                             RequestRepository requestRepository,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${tracking.trajectory.tolerance-meters:5}") double toleranceMeters,
+                             @Value("${tracking.trajectory.grace-minutes:10}") long graceMinutes) {
+        this.trackingRepository = trackingRepository;
+        this.trajectoryRepository = trajectoryRepository;
+        this.requestRepository = requestRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.toleranceMeters = toleranceMeters;
+        this.grace = Duration.ofMinutes(graceMinutes);
+    }
+
+    /**
+     * Newest point first, matching the raw tracking listing.
+     */
+    public List<TrackingPoint> getHistory(Long requestId) {
+        List<TrackingPoint> points = trajectoryRepository.findById(requestId)
+                .map(this::decode)
+                .orElseGet(() -> trackingRepository.findPointsByRequestId(requestId));
+        List<TrackingPoint> newestFirst = new ArrayList<>(points);
+        Collections.reverse(newestFirst);
+        return newestFirst;
+    }
+
+    public Optional<TrackingPoint> getLastPoint(Long requestId) {
+        Tracking tracking = trackingRepository.findFirstByRequestIdOrderByTimestampDesc(requestId);
+        if (tracking != null) {
+            return Optional.of(new TrackingPoint(tracking.getRequest().getId(), tracking.getVolunteer().getId(),
+                    tracking.getLatitude(), tracking.getLongitude(), tracking.getTimestamp()));
+        }
+        return trajectoryRepository.findById(requestId).map(this::decode)
+                .filter(points -> !points.isEmpty())
+                .map(points -> points.get(points.size() - 1));
+    }
+
+    // The grace period lets write-behind pings queued before delivery land first
+    @Scheduled(fixedDelayString = "${tracking.trajectory.compact-ms:300000}")
+    public void compactDelivered() {
+        LocalDateTime before = LocalDateTime.now().minus(grace);
+        List<Long> requestIds;
+        long afterId = 0;
+        int compacted = 0;
+        int failed = 0;
+        do {
+            // Walk by id so a request that keeps failing is passed over instead of fetched again
+            requestIds = requestRepository.findIdsWithUncompactedTracking(
+                    Request.RequestStatus.DELIVERED, before, afterId, PageRequest.of(0, COMPACT_BATCH));
+            for (Long requestId : requestIds) {
+                afterId = requestId;
+                try {
+                    compact(requestId);
+                    compacted++;
+                } catch (Exception e) {
+                    failed++;
+                    log.error("Failed to compact tracking for request {}: {}", requestId, e.getMessage(), e);
+                }
+            }
+        } while (requestIds.size() == COMPACT_BATCH);
+        if (compacted > 0 || failed > 0) {
+            log.info("Compacted tracking history of {} delivered requests, {} failed", compacted, failed);
+        }
+    }
+
+    public TrackingTrajectory compact(Long requestId) {
+        return transactionTemplate.execute(status -> {
+            List<TrackingPoint> points = trackingRepository.findPointsByRequestId(requestId);
+            if (points.isEmpty()) {
+                return null;
+            }
+
+            int n = points.size();
+            double[] latitudes = new double[n];
+            double[] longitudes = new double[n];
+            for (int i = 0; i < n; i++) {
+                latitudes[i] = points.get(i).getLatitude();
+                longitudes[i] = points.get(i).getLongitude();
+            }
+            boolean[] keep = TrajectorySimplifier.simplify(latitudes, longitudes, toleranceMeters);
+
+            int kept = 0;
+            for (boolean k : keep) {
+                if (k) {
+                    kept++;
+                }
+            }
+            double[] keptLatitudes = new double[kept];
+            double[] keptLongitudes = new double[kept];
+            LocalDateTime[] keptTimes = new LocalDateTime[kept];
+            for (int i = 0, j = 0; i < n; i++) {
+                if (keep[i]) {
+                    keptLatitudes[j] = latitudes[i];
+                    keptLongitudes[j] = longitudes[i];
+                    keptTimes[j] = points.get(i).getTimestamp();
+                    j++;
+                }
+            }
+
+            TrackingTrajectory trajectory = new TrackingTrajectory();
+            trajectory.setRequestId(requestId);
+            trajectory.setVolunteerId(points.get(n - 1).getVolunteerId());
+            trajectory.setOriginalPoints(n);
+            trajectory.setStoredPoints(kept);
+            trajectory.setToleranceMeters(toleranceMeters);
+            trajectory.setEncoded(TrajectoryCodec.encode(keptLatitudes, keptLongitudes, keptTimes));
+            trajectory.setStartedAt(points.get(0).getTimestamp());
+            trajectory.setEndedAt(points.get(n - 1).getTimestamp());
+            trajectory = trajectoryRepository.save(trajectory);
+
+            trackingRepository.deleteByRequestId(requestId);
+            log.debug("Request {} trajectory: {} -> {} points, {} bytes",
+                    requestId, n, kept, trajectory.getEncoded().length);
+            return trajectory;
+        });
+    }
+
+    private List<TrackingPoint> decode(TrackingTrajectory trajectory) {
+        List<TrackingPoint> points = new ArrayList<>(trajectory.getStoredPoints());
+        for (TrajectoryCodec.Point point : TrajectoryCodec.decode(trajectory.getEncoded())) {
+            points.add(new TrackingPoint(trajectory.getRequestId(), trajectory.getVolunteerId(),
+                    point.latitude(), point.longitude(), point.timestamp()));
+        }
+        return points;
+    }
+}
@@ -0,0 +1,106 @@
+package com.bitesharing.service;
+
+import com.bitesharing.model.User;
+import com.bitesharing.repository.UserRepository;
+import com.bitesharing.util.ExpiringLruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-through cache of users by id and by username. Cached instances are detached and shared, so
+ * callers treat them as read-only and load through the repository when they mean to modify a user.
+ * Writers call {@link #evict(Long)}; the eviction is repeated on every node once the transaction
+ * commits, and the ttl bounds how long a node keeps a user whose invalidation it never received.
+ */
+@Component
+public class UserCache {
+
+    static final String CACHE_NAME = "users";
+
+    private final UserRepository userRepository;
+    private final CacheInvalidationBus invalidationBus;
+    private final ExpiringLruCache<Long, User> usersById;
+    private final ExpiringLruCache<String, Long> idsByUsername;
+
+    public UserCache(UserRepository userRepository,
+                     CacheInvalidationBus invalidationBus,
+                     @Value("${user.cache.max-entries:10000}") int maxEntries,
+                     @Value("${user.cache.ttl-ms:600000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.invalidationBus = invalidationBus;
+        this.usersById = new ExpiringLruCache<>(maxEntries, ttlMs);
+        this.idsByUsername = new ExpiringLruCache<>(maxEntries, ttlMs);
+        invalidationBus.subscribe(CACHE_NAME, key -> evictLocal(Long.valueOf(key.toString())));
+    }
+
+    public Optional<User> findById(Long id) {
+        User cached = usersById.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<User> user = userRepository.findById(id);
+        user.ifPresent(this::put);
+        return user;
+    }
+
+    public Optional<User> findByUsername(String username) {
+        Long id = idsByUsername.get(username);
+        if (id != null) {
+            User cached = usersById.get(id);
+            if (cached != null && username.equals(cached.getUsername())) {
+                return Optional.of(cached);
+            }
+        }
+        Optional<User> user = userRepository.findByUsername(username);
+        user.ifPresent(this::put);
+        return user;
+    }
+
+    /**
+     * Drops the user here right away and on all nodes after the surrounding transaction commits,
+     * so no node reloads the row before the change is visible.
+     */
+    public void evict(Long id) {
+        evictLocal(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidationBus.publish(CACHE_NAME, id);
+                }
+            });
+        } else {
+            invalidationBus.publish(CACHE_NAME, id);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "size", usersById.size(),
+                "hits", usersById.hits(),
+                "misses", usersById.misses(),
+                "hitRatio", usersById.hitRatio(),
+                "evictions", usersById.evictions(),
+                "usernameHitRatio", idsByUsername.hitRatio()
+        );
+    }
+
+    private void put(User user) {
+        usersById.put(user.getId(), user);
+        idsByUsername.put(user.getUsername(), user.getId());
+    }
+
+    // A username entry left behind when the user itself was already gone is harmless:
+    // findByUsername only serves it when the cached user still carries that username
+    private void evictLocal(Long id) {
+        User removed = usersById.remove(id);
+        if (removed != null) {
+            idsByUsername.remove(removed.getUsername());
+        }
+    }
+}
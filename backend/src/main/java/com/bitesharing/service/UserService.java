@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -17,6 +18,9 @@ import java.util.stream.Collectors;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final VolunteerDispatchService volunteerDispatchService;
+    private final LeaderboardService leaderboardService;
 
     public List<UserResponse> getAllUsers() {
         return userRepository.findAll().stream()
@@ -37,7 +41,7 @@ public class UserService {
     }
 
     public User getUserById(Long id) {
-        return userRepository.findById(id)
+        return userCache.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
     }
 
@@ -47,7 +51,7 @@ public class UserService {
     }
 
     public User getUserByUsername(String username) {
-        return userRepository.findByUsername(username)
+        return userCache.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
     }
 
@@ -87,6 +91,7 @@ public class UserService {
             
             // Save and flush to ensure persistence
             User savedUser = userRepository.saveAndFlush(user);
+            userCache.evict(userId);
             
             // Verify the save worked
             if (savedUser == null) {
@@ -95,6 +100,7 @@ public class UserService {
             
             log.info("Successfully updated user status: userId={}, oldStatus={}, newStatus={}", 
                     userId, oldStatus, savedUser.getStatus());
+            volunteerDispatchService.onVolunteerStatusChanged(savedUser);
             
             // Convert to response DTO
             UserResponse response;
@@ -130,12 +136,21 @@ public class UserService {
 
     @Transactional
     public User updateUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCache.evict(saved.getId());
+        volunteerDispatchService.onVolunteerUpdated(saved);
+        return saved;
     }
 
     @Transactional
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
+        userCache.evict(id);
+        volunteerDispatchService.onVolunteerRemoved(id);
+        leaderboardService.onUserRemoved(id);
     }
-}
 
+    public Map<String, Object> getCacheStats() {
+        return userCache.getStats();
+    }
+}
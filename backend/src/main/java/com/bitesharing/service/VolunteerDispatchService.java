@@ -0,0 +1,250 @@
+package com.bitesharing.service;
+
+import com.bitesharing.dto.VolunteerLoad;
+import com.bitesharing.dto.VolunteerPosition;
+import com.bitesharing.model.Donation;
+import com.bitesharing.model.Request;
+import com.bitesharing.model.User;
+import com.bitesharing.repository.RequestRepository;
+import com.bitesharing.repository.TrackingRepository;
+import com.bitesharing.repository.UserRepository;
+import com.bitesharing.util.GeoGridIndex;
+import com.bitesharing.util.GeoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks a volunteer for new requests from an in-memory grid of approved volunteers' last known
+ * positions and their active workload. Selection itself touches no database state, so it can be
+ * driven and timed offline through {@link #selectVolunteer}.
+ */
+@Slf4j
+@Service
+public class VolunteerDispatchService {
+
+    public static final Set<Request.RequestStatus> ACTIVE_STATUSES =
+            EnumSet.of(Request.RequestStatus.ACCEPTED, Request.RequestStatus.PICKED_UP);
+
+    private final UserRepository userRepository;
+    private final RequestRepository requestRepository;
+    private final TrackingRepository trackingRepository;
+
+    private final GeoGridIndex<Long> positions;
+    private final Set<Long> approvedVolunteers = ConcurrentHashMap.newKeySet();
+    // Home coordinates last seen per approved volunteer, to tell a moved home from an unrelated profile save
+    private final Map<Long, Home> homes = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> activeLoad = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+    private final double maxRadiusKm;
+    private final int candidateCount;
+    private final double loadPenaltyKm;
+    private final int maxActiveRequests;
+    private final Duration urgentWindow;
+
+    public VolunteerDispatchService(UserRepository userRepository,
+                                    RequestRepository requestRepository,
+                                    TrackingRepository trackingRepository,
+                                    @Value("${dispatch.auto.enabled:true}") boolean enabled,
+                                    @Value("${dispatch.max-radius-km:15}") double maxRadiusKm,
+                                    @Value("${dispatch.candidates:25}") int candidateCount,
+                                    @Value("${dispatch.load-penalty-km:2.0}") double loadPenaltyKm,
+                                    @Value("${dispatch.max-active-requests:5}") int maxActiveRequests,
+                                    @Value("${dispatch.urgent-minutes:60}") long urgentMinutes,
+                                    @Value("${dispatch.cell-size-deg:0.02}") double cellSizeDeg) {
+        this.userRepository = userRepository;
+        this.requestRepository = requestRepository;
+        this.trackingRepository = trackingRepository;
+        this.enabled = enabled;
+        this.maxRadiusKm = maxRadiusKm;
+        this.candidateCount = candidateCount;
+        this.loadPenaltyKm = loadPenaltyKm;
+        this.maxActiveRequests = maxActiveRequests;
+        this.urgentWindow = Duration.ofMinutes(urgentMinutes);
+        this.positions = new GeoGridIndex<>(cellSizeDeg);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        positions.clear();
+        approvedVolunteers.clear();
+        homes.clear();
+        for (User volunteer : userRepository.findByUserTypeAndStatus(User.UserType.VOLUNTEER, User.UserStatus.APPROVED)) {
+            approvedVolunteers.add(volunteer.getId());
+            homes.put(volunteer.getId(), new Home(volunteer.getLatitude(), volunteer.getLongitude()));
+            if (GeoUtils.isValidCoordinate(volunteer.getLatitude(), volunteer.getLongitude())) {
+                positions.put(volunteer.getId(), volunteer.getLatitude(), volunteer.getLongitude(), volunteer.getId());
+            }
+        }
+        // Last GPS fix beats the registered home address
+        for (VolunteerPosition position : trackingRepository.findLatestVolunteerPositions()) {
+            updatePosition(position.getVolunteerId(), position.getLatitude(), position.getLongitude());
+        }
+        refreshLoad();
+        log.info("Dispatch index built: {} approved volunteers, {} with a position",
+                approvedVolunteers.size(), positions.size());
+    }
+
+    // Counters are adjusted inline; this resyncs them with committed state
+    @Scheduled(initialDelayString = "${dispatch.load-refresh-ms:300000}", fixedDelayString = "${dispatch.load-refresh-ms:300000}")
+    public void refreshLoad() {
+        Map<Long, AtomicInteger> fresh = new ConcurrentHashMap<>();
+        for (VolunteerLoad load : requestRepository.countByAssignedVolunteerAndStatusIn(ACTIVE_STATUSES)) {
+            fresh.put(load.getVolunteerId(), new AtomicInteger(load.getActiveRequests().intValue()));
+        }
+        activeLoad.keySet().retainAll(fresh.keySet());
+        activeLoad.putAll(fresh);
+    }
+
+    public void updatePosition(Long volunteerId, Double latitude, Double longitude) {
+        if (approvedVolunteers.contains(volunteerId) && GeoUtils.isValidCoordinate(latitude, longitude)) {
+            positions.put(volunteerId, latitude, longitude, volunteerId);
+        }
+    }
+
+    public Optional<VolunteerPosition> getPosition(Long volunteerId) {
+        GeoGridIndex.Entry<Long> entry = positions.get(volunteerId);
+        return entry == null ? Optional.empty()
+                : Optional.of(new VolunteerPosition(volunteerId, entry.latitude(), entry.longitude()));
+    }
+
+    public void onVolunteerStatusChanged(User user) {
+        if (user.getUserType() != User.UserType.VOLUNTEER) {
+            return;
+        }
+        if (user.getStatus() == User.UserStatus.APPROVED) {
+            approvedVolunteers.add(user.getId());
+            homes.put(user.getId(), new Home(user.getLatitude(), user.getLongitude()));
+            if (positions.get(user.getId()) == null) {
+                updatePosition(user.getId(), user.getLatitude(), user.getLongitude());
+            }
+        } else {
+            approvedVolunteers.remove(user.getId());
+            homes.remove(user.getId());
+            positions.remove(user.getId());
+        }
+    }
+
+    /**
+     * Re-reads type, status and home coordinates after a profile edit. Anyone who is no longer an
+     * approved volunteer drops out of dispatch. Only a changed home moves the indexed position, which
+     * then stays there until the next GPS fix; saves that leave the home alone keep the live position.
+     */
+    public void onVolunteerUpdated(User user) {
+        if (user.getUserType() != User.UserType.VOLUNTEER || user.getStatus() != User.UserStatus.APPROVED) {
+            onVolunteerRemoved(user.getId());
+            return;
+        }
+        approvedVolunteers.add(user.getId());
+        Home home = new Home(user.getLatitude(), user.getLongitude());
+        Home previous = homes.put(user.getId(), home);
+        GeoGridIndex.Entry<Long> indexed = positions.get(user.getId());
+        if (home.equals(previous) && indexed != null) {
+            return;
+        }
+        if (GeoUtils.isValidCoordinate(home.latitude(), home.longitude())) {
+            positions.put(user.getId(), home.latitude(), home.longitude(), user.getId());
+        } else if (previous != null && previous.isAt(indexed)) {
+            // Home cleared: drop a position that came from it, but not a GPS fix
+            positions.remove(user.getId());
+        }
+    }
+
+    public void onVolunteerRemoved(Long volunteerId) {
+        approvedVolunteers.remove(volunteerId);
+        homes.remove(volunteerId);
+        positions.remove(volunteerId);
+        activeLoad.remove(volunteerId);
+    }
+
+    public void onAssigned(Long volunteerId) {
+        activeLoad.computeIfAbsent(volunteerId, id -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public void onReleased(Long volunteerId) {
+        AtomicInteger load = activeLoad.get(volunteerId);
+        if (load != null) {
+            load.updateAndGet(current -> Math.max(0, current - 1));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Assigns the best volunteer to a freshly created request, if one is in range. Requests raised
+     * by volunteers themselves are left alone.
+     */
+    public Optional<Candidate> dispatch(Request request, Donation donation) {
+        if (!enabled || request.getRequesterType() == Request.RequesterType.VOLUNTEER
+                || !GeoUtils.isValidCoordinate(donation.getLatitude(), donation.getLongitude())) {
+            return Optional.empty();
+        }
+
+        Optional<Candidate> candidate = selectVolunteer(donation.getLatitude(), donation.getLongitude(),
+                donation.getExpiryDate(), LocalDateTime.now());
+        candidate.ifPresent(selected -> {
+            request.setAssignedVolunteer(userRepository.getReferenceById(selected.volunteerId()));
+            request.setStatus(Request.RequestStatus.ACCEPTED);
+            onAssigned(selected.volunteerId());
+            log.info("Auto-dispatched donation {} to volunteer {} ({} km, {} active)",
+                    donation.getId(), selected.volunteerId(), selected.distanceKm(), selected.activeRequests());
+        });
+        return candidate;
+    }
+
+    /**
+     * Scores the nearest candidates as distance plus a per-active-request penalty. Close to the
+     * deadline the penalty shrinks so the nearest free hands win.
+     */
+    public Optional<Candidate> selectVolunteer(double latitude, double longitude,
+                                               LocalDateTime expiryDate, LocalDateTime now) {
+        boolean urgent = expiryDate != null && expiryDate.isBefore(now.plus(urgentWindow));
+        double penalty = urgent ? loadPenaltyKm / 4 : loadPenaltyKm;
+
+        Candidate best = null;
+        double bestScore = Double.MAX_VALUE;
+        // Full volunteers are filtered inside the search so they never take up a candidate slot
+        for (GeoGridIndex.Hit<Long> hit : positions.nearest(latitude, longitude, maxRadiusKm, candidateCount,
+                volunteerId -> activeRequests(volunteerId) < maxActiveRequests)) {
+            long volunteerId = hit.entry().id();
+            int active = activeRequests(volunteerId);
+            double score = hit.distanceKm() + penalty * active;
+            if (score < bestScore) {
+                bestScore = score;
+                best = new Candidate(volunteerId, Math.round(hit.distanceKm() * 1000.0) / 1000.0, active);
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    private int activeRequests(Long volunteerId) {
+        AtomicInteger load = activeLoad.get(volunteerId);
+        return load != null ? load.get() : 0;
+    }
+
+    public record Candidate(Long volunteerId, double distanceKm, int activeRequests) {
+    }
+
+    private record Home(Double latitude, Double longitude) {
+
+        boolean isAt(GeoGridIndex.Entry<Long> entry) {
+            return entry != null && latitude != null && longitude != null
+                    && entry.latitude() == latitude && entry.longitude() == longitude;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.bitesharing.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Uniform lat/lon grid over point entries. Nearest-neighbour queries walk rings of cells
+ * outward from the query point and stop as soon as no unvisited cell can hold a closer hit.
+ */
+public class GeoGridIndex<T> {
+
+    private final double cellSizeDeg;
+    private final ConcurrentHashMap<Long, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    public GeoGridIndex(double cellSizeDeg) {
+        if (cellSizeDeg <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellSizeDeg = cellSizeDeg;
+    }
+
+    public void put(long id, double latitude, double longitude, T value) {
+        Entry<T> entry = new Entry<>(id, latitude, longitude, value);
+        long cell = cellKey(latitude, longitude);
+        entries.compute(id, (key, previous) -> {
+            if (previous != null) {
+                long previousCell = cellKey(previous.latitude(), previous.longitude());
+                if (previousCell != cell) {
+                    removeFromCell(previousCell, id);
+                }
+            }
+            cells.compute(cell, (c, ids) -> {
+                Set<Long> set = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                set.add(id);
+                return set;
+            });
+            return entry;
+        });
+    }
+
+    public void remove(long id) {
+        entries.computeIfPresent(id, (key, previous) -> {
+            removeFromCell(cellKey(previous.latitude(), previous.longitude()), id);
+            return null;
+        });
+    }
+
+    public int removeIf(Predicate<Entry<T>> predicate) {
+        int removed = 0;
+        for (Entry<T> entry : entries.values()) {
+            if (predicate.test(entry)) {
+                remove(entry.id());
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public Entry<T> get(long id) {
+        return entries.get(id);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+        cells.clear();
+    }
+
+    public List<Hit<T>> nearest(double latitude, double longitude, double radiusKm, int limit, Predicate<T> filter) {
+        if (limit <= 0 || radiusKm <= 0) {
+            return List.of();
+        }
+
+        double latCellKm = cellSizeDeg * GeoUtils.KM_PER_DEGREE_LAT;
+        double radiusDeg = radiusKm / GeoUtils.KM_PER_DEGREE_LAT;
+        double widestLat = Math.min(89.0, Math.abs(latitude) + radiusDeg);
+        double lonCellKm = latCellKm * Math.cos(Math.toRadians(widestLat));
+        double minCellKm = Math.min(latCellKm, lonCellKm);
+
+        int maxRingLat = (int) Math.ceil(radiusKm / latCellKm);
+        int maxRingLon = (int) Math.ceil(radiusKm / lonCellKm);
+        int maxRing = Math.max(maxRingLat, maxRingLon);
+
+        long originLat = (long) Math.floor(latitude / cellSizeDeg);
+        long originLon = (long) Math.floor(longitude / cellSizeDeg);
+
+        // Max-heap on distance so the current worst hit is evicted first
+        PriorityQueue<Hit<T>> best = new PriorityQueue<>(limit + 1,
+                Comparator.comparingDouble(Hit<T>::distanceKm).reversed());
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int dy = -ring; dy <= ring; dy++) {
+                if (Math.abs(dy) > maxRingLat) {
+                    continue;
+                }
+                boolean edgeRow = Math.abs(dy) == ring;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int dx = -ring; dx <= ring; dx += Math.max(step, 1)) {
+                    if (Math.abs(dx) > maxRingLon) {
+                        continue;
+                    }
+                    scanCell(key(originLat + dy, originLon + dx), latitude, longitude, radiusKm, limit, filter, best);
+                }
+            }
+
+            // Anything in a further ring is at least `ring` whole cells away
+            if (best.size() == limit && best.peek().distanceKm() <= ring * minCellKm) {
+                break;
+            }
+        }
+
+        List<Hit<T>> hits = new ArrayList<>(best);
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits;
+    }
+
+    private void scanCell(long cell, double latitude, double longitude, double radiusKm, int limit,
+                          Predicate<T> filter, PriorityQueue<Hit<T>> best) {
+        Set<Long> ids = cells.get(cell);
+        if (ids == null) {
+            return;
+        }
+        for (Long id : ids) {
+            Entry<T> entry = entries.get(id);
+            if (entry == null || (filter != null && !filter.test(entry.value()))) {
+                continue;
+            }
+            double distance = GeoUtils.haversineKm(latitude, longitude, entry.latitude(), entry.longitude());
+            if (distance > radiusKm) {
+                continue;
+            }
+            if (best.size() < limit) {
+                best.add(new Hit<>(entry, distance));
+            } else if (distance < best.peek().distanceKm()) {
+                best.poll();
+                best.add(new Hit<>(entry, distance));
+            }
+        }
+    }
+
+    private void removeFromCell(long cell, long id) {
+        cells.computeIfPresent(cell, (c, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return key((long) Math.floor(latitude / cellSizeDeg), (long) Math.floor(longitude / cellSizeDeg));
+    }
+
+    private static long key(long latCell, long lonCell) {
+        return (latCell << 32) | (lonCell & 0xffffffffL);
+    }
+
+    public record Entry<T>(long id, double latitude, double longitude, T value) {
+    }
+
+    public record Hit<T>(Entry<T> entry, double distanceKm) {
+    }
+}
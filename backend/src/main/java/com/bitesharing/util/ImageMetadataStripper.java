@@ -0,0 +1,191 @@
+package com.bitesharing.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Removes embedded metadata (EXIF with GPS position and camera details, XMP, IPTC, comments) from
+ * an image without re-encoding it. JPEG and PNG are rewritten segment by segment, keeping only
+ * what is needed to display the pixels; a JPEG keeps its EXIF orientation so phone photos stay
+ * upright. GIF has no such metadata and is returned unchanged.
+ */
+public final class ImageMetadataStripper {
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final List<String> PNG_METADATA_CHUNKS = List.of("eXIf", "tEXt", "zTXt", "iTXt", "tIME");
+    private static final byte[] EXIF_HEADER = {'E', 'x', 'i', 'f', 0, 0};
+    private static final byte[] ICC_HEADER = "ICC_PROFILE\0".getBytes(StandardCharsets.US_ASCII);
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    private ImageMetadataStripper() {
+    }
+
+    /**
+     * @return the image without metadata, or null when the format is not one this class can
+     * clean or the data is malformed
+     */
+    public static byte[] strip(byte[] image) {
+        try {
+            if (startsWith(image, 0, new byte[]{(byte) 0xFF, (byte) 0xD8})) {
+                return stripJpeg(image);
+            }
+            if (startsWith(image, 0, PNG_SIGNATURE)) {
+                return stripPng(image);
+            }
+            if (startsWith(image, 0, "GIF87a".getBytes(StandardCharsets.US_ASCII))
+                    || startsWith(image, 0, "GIF89a".getBytes(StandardCharsets.US_ASCII))) {
+                return image;
+            }
+            return null;
+        } catch (IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private static byte[] stripJpeg(byte[] in) {
+        List<byte[]> kept = new ArrayList<>();
+        int orientation = 1;
+        int pos = 2;
+        while (true) {
+            if ((in[pos] & 0xFF) != 0xFF) {
+                return null;
+            }
+            int marker = in[pos + 1] & 0xFF;
+            if (marker == 0xFF) {
+                // Fill byte before a marker
+                pos++;
+                continue;
+            }
+            if (marker == 0xDA) {
+                break;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                kept.add(Arrays.copyOfRange(in, pos, pos + 2));
+                pos += 2;
+                continue;
+            }
+            int end = pos + 2 + (((in[pos + 2] & 0xFF) << 8) | (in[pos + 3] & 0xFF));
+            if (end > in.length) {
+                return null;
+            }
+            if (marker == 0xE1 && startsWith(in, pos + 4, EXIF_HEADER)) {
+                orientation = orientation(in, pos + 4 + EXIF_HEADER.length, end);
+            }
+            // Tables and frame headers stay; of the application segments only JFIF, Adobe and ICC do
+            boolean keep = ((marker < 0xE0 || marker > 0xEF) && marker != 0xFE)
+                    || marker == 0xE0 || marker == 0xEE
+                    || (marker == 0xE2 && startsWith(in, pos + 4, ICC_HEADER));
+            if (keep) {
+                kept.add(Arrays.copyOfRange(in, pos, end));
+            }
+            pos = end;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(in.length);
+        out.write(0xFF);
+        out.write(0xD8);
+        int next = 0;
+        // JFIF first if present, then the orientation, then the tables and frame in their original order
+        if (!kept.isEmpty() && (kept.get(0)[1] & 0xFF) == 0xE0) {
+            out.writeBytes(kept.get(next++));
+        }
+        if (orientation > 1 && orientation <= 8) {
+            out.writeBytes(orientationSegment(orientation));
+        }
+        for (; next < kept.size(); next++) {
+            out.writeBytes(kept.get(next));
+        }
+        out.write(in, pos, in.length - pos);
+        return out.toByteArray();
+    }
+
+    // Orientation from IFD0 of the TIFF structure inside an EXIF segment, or 1 when absent or unreadable
+    private static int orientation(byte[] in, int tiff, int end) {
+        if (tiff + 8 > end) {
+            return 1;
+        }
+        boolean little;
+        if (in[tiff] == 'I' && in[tiff + 1] == 'I') {
+            little = true;
+        } else if (in[tiff] == 'M' && in[tiff + 1] == 'M') {
+            little = false;
+        } else {
+            return 1;
+        }
+        long ifd = tiff + readInt(in, tiff + 4, little);
+        if (ifd < tiff || ifd + 2 > end) {
+            return 1;
+        }
+        int entries = readShort(in, (int) ifd, little);
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                return 1;
+            }
+            if (readShort(in, entry, little) == ORIENTATION_TAG) {
+                return readShort(in, entry + 8, little);
+            }
+        }
+        return 1;
+    }
+
+    // APP1 holding a big-endian TIFF with a single IFD0 entry: Orientation, SHORT, count 1
+    private static byte[] orientationSegment(int orientation) {
+        byte[] tiff = {
+                'M', 'M', 0, 42, 0, 0, 0, 8,
+                0, 1,
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0,
+                0, 0, 0, 0
+        };
+        int length = 2 + EXIF_HEADER.length + tiff.length;
+        ByteArrayOutputStream segment = new ByteArrayOutputStream(length + 2);
+        segment.write(0xFF);
+        segment.write(0xE1);
+        segment.write(length >> 8);
+        segment.write(length & 0xFF);
+        segment.writeBytes(EXIF_HEADER);
+        segment.writeBytes(tiff);
+        return segment.toByteArray();
+    }
+
+    private static byte[] stripPng(byte[] in) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(in.length);
+        out.writeBytes(PNG_SIGNATURE);
+        int pos = PNG_SIGNATURE.length;
+        while (true) {
+            long length = readInt(in, pos, false);
+            String type = new String(in, pos + 4, 4, StandardCharsets.US_ASCII);
+            long end = pos + 12 + length;
+            if (end > in.length) {
+                return null;
+            }
+            if (!PNG_METADATA_CHUNKS.contains(type)) {
+                out.write(in, pos, (int) (end - pos));
+            }
+            pos = (int) end;
+            if (type.equals("IEND")) {
+                return out.toByteArray();
+            }
+        }
+    }
+
+    private static boolean startsWith(byte[] data, int offset, byte[] prefix) {
+        return data.length >= offset + prefix.length
+                && Arrays.equals(data, offset, offset + prefix.length, prefix, 0, prefix.length);
+    }
+
+    private static int readShort(byte[] data, int pos, boolean little) {
+        int a = data[pos] & 0xFF;
+        int b = data[pos + 1] & 0xFF;
+        return little ? (b << 8) | a : (a << 8) | b;
+    }
+
+    private static long readInt(byte[] data, int pos, boolean little) {
+        long high = readShort(data, little ? pos + 2 : pos, little);
+        long low = readShort(data, little ? pos : pos + 2, little);
+        return (high << 16) | low;
+    }
+}
@@ -0,0 +1,34 @@
+package com.bitesharing.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+public final class NdjsonWriter {
+
+    public static final String CONTENT_TYPE = "application/x-ndjson";
+
+    private static final int FLUSH_EVERY = 500;
+
+    private NdjsonWriter() {
+    }
+
+    public static long write(ObjectMapper objectMapper, OutputStream out, Stream<?> rows) throws IOException {
+        ObjectWriter writer = objectMapper.writer();
+        Iterator<?> iterator = rows.iterator();
+        long count = 0;
+        while (iterator.hasNext()) {
+            out.write(writer.writeValueAsBytes(iterator.next()));
+            out.write('\n');
+            if (++count % FLUSH_EVERY == 0) {
+                out.flush();
+            }
+        }
+        out.flush();
+        return count;
+    }
+}
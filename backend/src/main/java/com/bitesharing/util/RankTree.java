@@ -0,0 +1,325 @@
+package com.bitesharing.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Order-statistic treap of (id, score) pairs ranked by score descending, then id ascending.
+ * Every node carries its subtree size, so rank lookups and positional access are O(log n)
+ * expected. Reads share a lock; updates are exclusive.
+ */
+public class RankTree {
+
+    private final Map<Long, Long> scores = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root;
+
+    /**
+     * Inserts the id or moves it to its new score.
+     */
+    public void put(long id, long score) {
+        lock.writeLock().lock();
+        try {
+            Long previous = scores.put(id, score);
+            if (previous != null) {
+                if (previous == score) {
+                    return;
+                }
+                root = delete(root, previous, id);
+            }
+            Node[] parts = split(root, score, id);
+            root = merge(merge(parts[0], new Node(id, score)), parts[1]);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Like {@link #put}, but never lowers a known id's score. Totals that only grow can then be
+     * applied in any order and the highest one wins.
+     */
+    public void raise(long id, long score) {
+        lock.writeLock().lock();
+        try {
+            Long previous = scores.get(id);
+            if (previous == null || previous < score) {
+                put(id, score);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Long previous = scores.remove(id);
+            if (previous != null) {
+                root = delete(root, previous, id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the contents in O(n) when the input is already in rank order, as when it is read
+     * with a matching ORDER BY, and sorts it first otherwise. The sorted entries become a
+     * balanced tree whose priorities decrease with depth.
+     */
+    public void load(long[] ids, long[] loadScores) {
+        int[] order = new int[ids.length];
+        boolean inOrder = true;
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            if (i > 0 && compare(loadScores[i - 1], ids[i - 1], loadScores[i], ids[i]) > 0) {
+                inOrder = false;
+            }
+        }
+        if (!inOrder) {
+            order = IntStream.range(0, ids.length).boxed()
+                    .sorted((a, b) -> compare(loadScores[a], ids[a], loadScores[b], ids[b]))
+                    .mapToInt(Integer::intValue).toArray();
+        }
+
+        Node[] sorted = new Node[ids.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = new Node(ids[order[i]], loadScores[order[i]], 0);
+        }
+        Map<Long, Long> loaded = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            loaded.put(ids[i], loadScores[i]);
+        }
+
+        lock.writeLock().lock();
+        try {
+            scores.clear();
+            scores.putAll(loaded);
+            root = build(sorted, 0, sorted.length - 1, 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            scores.clear();
+            root = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 1-based rank, or -1 if the id is unknown.
+     */
+    public int rank(long id) {
+        lock.readLock().lock();
+        try {
+            Long score = scores.get(id);
+            if (score == null) {
+                return -1;
+            }
+            int before = 0;
+            Node node = root;
+            while (node != null) {
+                int cmp = compare(score, id, node.score, node.id);
+                if (cmp == 0) {
+                    return before + size(node.left) + 1;
+                }
+                if (cmp < 0) {
+                    node = node.left;
+                } else {
+                    before += size(node.left) + 1;
+                    node = node.right;
+                }
+            }
+            return -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} entries starting at the 0-based position {@code offset}, best first.
+     */
+    public List<Ranked> range(int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Ranked> result = new ArrayList<>(Math.max(0, Math.min(limit, size(root) - offset)));
+            if (offset < 0 || limit <= 0) {
+                return result;
+            }
+            // Descend to the offset, remembering the ancestors still to be visited in order
+            List<Node> stack = new ArrayList<>();
+            Node node = root;
+            int skip = offset;
+            while (node != null) {
+                int leftSize = size(node.left);
+                if (skip < leftSize) {
+                    stack.add(node);
+                    node = node.left;
+                } else if (skip == leftSize) {
+                    stack.add(node);
+                    break;
+                } else {
+                    skip -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+
+            int position = offset;
+            while (!stack.isEmpty() && result.size() < limit) {
+                Node current = stack.remove(stack.size() - 1);
+                result.add(new Ranked(current.id, current.score, ++position));
+                Node next = current.right;
+                while (next != null) {
+                    stack.add(next);
+                    next = next.left;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int compare(long scoreA, long idA, long scoreB, long idB) {
+        if (scoreA != scoreB) {
+            return scoreA > scoreB ? -1 : 1;
+        }
+        return Long.compare(idA, idB);
+    }
+
+    // Left part holds everything ranked strictly before (score, id)
+    private static Node[] split(Node node, long score, long id) {
+        Node left = null;
+        Node right = null;
+        Node leftTail = null;
+        Node rightTail = null;
+        List<Node> touched = new ArrayList<>();
+        while (node != null) {
+            touched.add(node);
+            if (compare(node.score, node.id, score, id) < 0) {
+                if (leftTail == null) {
+                    left = node;
+                } else {
+                    leftTail.right = node;
+                }
+                leftTail = node;
+                node = node.right;
+            } else {
+                if (rightTail == null) {
+                    right = node;
+                } else {
+                    rightTail.left = node;
+                }
+                rightTail = node;
+                node = node.left;
+            }
+        }
+        if (leftTail != null) {
+            leftTail.right = null;
+        }
+        if (rightTail != null) {
+            rightTail.left = null;
+        }
+        for (int i = touched.size() - 1; i >= 0; i--) {
+            touched.get(i).resize();
+        }
+        return new Node[]{left, right};
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.resize();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.resize();
+        return right;
+    }
+
+    private static Node delete(Node node, long score, long id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(score, id, node.score, node.id);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = delete(node.left, score, id);
+        } else {
+            node.right = delete(node.right, score, id);
+        }
+        node.resize();
+        return node;
+    }
+
+    private static Node build(Node[] sorted, int from, int to, int depth) {
+        if (from > to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        Node node = sorted[mid];
+        // Bands of 2^25 per level keep every parent above its children for up to 63 levels
+        node.priority = Integer.MAX_VALUE - depth * (1 << 25) - ThreadLocalRandom.current().nextInt(1 << 25);
+        node.left = build(sorted, from, mid - 1, depth + 1);
+        node.right = build(sorted, mid + 1, to, depth + 1);
+        node.resize();
+        return node;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    public record Ranked(long id, long score, int rank) {
+    }
+
+    private static final class Node {
+        final long id;
+        final long score;
+        int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(long id, long score) {
+            this(id, score, ThreadLocalRandom.current().nextInt());
+        }
+
+        Node(long id, long score, int priority) {
+            this.id = id;
+            this.score = score;
+            this.priority = priority;
+        }
+
+        void resize() {
+            size = 1 + RankTree.size(left) + RankTree.size(right);
+        }
+    }
+}
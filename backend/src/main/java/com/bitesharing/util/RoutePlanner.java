@@ -0,0 +1,154 @@
+package com.bitesharing.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-path stop ordering over a precomputed haversine distance matrix. Routes of up to
+ * {@value #EXACT_LIMIT} stops are solved exactly with the Held-Karp dynamic programme; longer ones
+ * use nearest-neighbour construction followed by 2-opt improvement. The start point is fixed and
+ * the route does not return.
+ */
+public final class RoutePlanner {
+
+    private static final double EPSILON = 1e-9;
+    private static final int MAX_PASSES = 50;
+    static final int EXACT_LIMIT = 10;
+
+    private RoutePlanner() {
+    }
+
+    /**
+     * @return indexes into {@code latitudes}/{@code longitudes} in visiting order
+     */
+    public static int[] order(double startLatitude, double startLongitude, double[] latitudes, double[] longitudes) {
+        int n = latitudes.length;
+        if (n == 0) {
+            return new int[0];
+        }
+
+        // Node 0 is the start, node i + 1 is stop i
+        double[][] distance = new double[n + 1][n + 1];
+        for (int i = 0; i <= n; i++) {
+            double latI = i == 0 ? startLatitude : latitudes[i - 1];
+            double lonI = i == 0 ? startLongitude : longitudes[i - 1];
+            for (int j = i + 1; j <= n; j++) {
+                double d = GeoUtils.haversineKm(latI, lonI, latitudes[j - 1], longitudes[j - 1]);
+                distance[i][j] = d;
+                distance[j][i] = d;
+            }
+        }
+
+        int[] path;
+        if (n <= EXACT_LIMIT) {
+            path = heldKarp(distance, n);
+        } else {
+            path = nearestNeighbour(distance, n);
+            twoOpt(path, distance);
+        }
+
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = path[i + 1] - 1;
+        }
+        return order;
+    }
+
+    // cost[mask][j]: shortest path from the start through exactly the stops in mask, ending at stop j
+    private static int[] heldKarp(double[][] distance, int n) {
+        int full = (1 << n) - 1;
+        double[][] cost = new double[full + 1][n];
+        int[][] previous = new int[full + 1][n];
+        for (double[] row : cost) {
+            Arrays.fill(row, Double.MAX_VALUE);
+        }
+        for (int j = 0; j < n; j++) {
+            cost[1 << j][j] = distance[0][j + 1];
+            previous[1 << j][j] = -1;
+        }
+        for (int mask = 1; mask <= full; mask++) {
+            for (int j = 0; j < n; j++) {
+                if ((mask & (1 << j)) == 0 || cost[mask][j] == Double.MAX_VALUE) {
+                    continue;
+                }
+                for (int k = 0; k < n; k++) {
+                    if ((mask & (1 << k)) != 0) {
+                        continue;
+                    }
+                    int next = mask | (1 << k);
+                    double candidate = cost[mask][j] + distance[j + 1][k + 1];
+                    if (candidate < cost[next][k]) {
+                        cost[next][k] = candidate;
+                        previous[next][k] = j;
+                    }
+                }
+            }
+        }
+
+        int end = 0;
+        for (int j = 1; j < n; j++) {
+            if (cost[full][j] < cost[full][end]) {
+                end = j;
+            }
+        }
+        int[] path = new int[n + 1];
+        for (int mask = full, j = end, step = n; j >= 0; step--) {
+            path[step] = j + 1;
+            int before = previous[mask][j];
+            mask &= ~(1 << j);
+            j = before;
+        }
+        return path;
+    }
+
+    private static int[] nearestNeighbour(double[][] distance, int n) {
+        int[] path = new int[n + 1];
+        boolean[] visited = new boolean[n + 1];
+        visited[0] = true;
+        int current = 0;
+        for (int step = 1; step <= n; step++) {
+            int next = -1;
+            double nextDistance = Double.MAX_VALUE;
+            for (int candidate = 1; candidate <= n; candidate++) {
+                if (!visited[candidate] && distance[current][candidate] < nextDistance) {
+                    next = candidate;
+                    nextDistance = distance[current][candidate];
+                }
+            }
+            visited[next] = true;
+            path[step] = next;
+            current = next;
+        }
+        return path;
+    }
+
+    private static void twoOpt(int[] path, double[][] distance) {
+        int last = path.length - 1;
+        boolean improved = true;
+        for (int pass = 0; improved && pass < MAX_PASSES; pass++) {
+            improved = false;
+            for (int i = 1; i < last; i++) {
+                for (int k = i + 1; k <= last; k++) {
+                    double before = distance[path[i - 1]][path[i]];
+                    double after = distance[path[i - 1]][path[k]];
+                    // The path is open: reversing a tail has no closing edge to pay for
+                    if (k < last) {
+                        before += distance[path[k]][path[k + 1]];
+                        after += distance[path[i]][path[k + 1]];
+                    }
+                    if (after < before - EPSILON) {
+                        reverse(path, i, k);
+                        improved = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private static void reverse(int[] path, int from, int to) {
+        while (from < to) {
+            int swap = path[from];
+            path[from++] = path[to];
+            path[to--] = swap;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.bitesharing.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs a trajectory as coordinates in fixed point (1e-5 degrees, about 1.1 m) and timestamps in
+ * whole seconds, each stored as a zigzag varint delta from the previous point. A typical GPS step
+ * fits in 2-3 bytes per field.
+ */
+public final class TrajectoryCodec {
+
+    private static final double SCALE = 1e5;
+
+    private TrajectoryCodec() {
+    }
+
+    public static byte[] encode(double[] latitudes, double[] longitudes, LocalDateTime[] timestamps) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(latitudes.length * 6 + 8);
+        writeVarint(out, latitudes.length);
+        long previousLat = 0;
+        long previousLon = 0;
+        long previousTime = 0;
+        for (int i = 0; i < latitudes.length; i++) {
+            long lat = Math.round(latitudes[i] * SCALE);
+            long lon = Math.round(longitudes[i] * SCALE);
+            long time = timestamps[i].toEpochSecond(ZoneOffset.UTC);
+            writeVarint(out, zigzag(lat - previousLat));
+            writeVarint(out, zigzag(lon - previousLon));
+            writeVarint(out, zigzag(time - previousTime));
+            previousLat = lat;
+            previousLon = lon;
+            previousTime = time;
+        }
+        return out.toByteArray();
+    }
+
+    public static List<Point> decode(byte[] encoded) {
+        ByteBuffer in = ByteBuffer.wrap(encoded);
+        int count = (int) readVarint(in);
+        List<Point> points = new ArrayList<>(count);
+        long lat = 0;
+        long lon = 0;
+        long time = 0;
+        for (int i = 0; i < count; i++) {
+            lat += unzigzag(readVarint(in));
+            lon += unzigzag(readVarint(in));
+            time += unzigzag(readVarint(in));
+            points.add(new Point(lat / SCALE, lon / SCALE, LocalDateTime.ofEpochSecond(time, 0, ZoneOffset.UTC)));
+        }
+        return points;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    public record Point(double latitude, double longitude, LocalDateTime timestamp) {
+    }
+}
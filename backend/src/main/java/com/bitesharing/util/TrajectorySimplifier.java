@@ -0,0 +1,73 @@
+package com.bitesharing.util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Douglas–Peucker line simplification with an explicit stack. Distances are measured on a local
+ * equirectangular projection, which is accurate to well under a metre over city-sized routes.
+ */
+public final class TrajectorySimplifier {
+
+    private static final double METERS_PER_DEGREE = GeoUtils.KM_PER_DEGREE_LAT * 1000;
+
+    private TrajectorySimplifier() {
+    }
+
+    /**
+     * Returns which points to keep; the first and last are always kept.
+     */
+    public static boolean[] simplify(double[] latitudes, double[] longitudes, double toleranceMeters) {
+        int n = latitudes.length;
+        boolean[] keep = new boolean[n];
+        if (n <= 2) {
+            Arrays.fill(keep, true);
+            return keep;
+        }
+
+        double lonScale = Math.cos(Math.toRadians(latitudes[0])) * METERS_PER_DEGREE;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = (longitudes[i] - longitudes[0]) * lonScale;
+            y[i] = (latitudes[i] - latitudes[0]) * METERS_PER_DEGREE;
+        }
+
+        keep[0] = true;
+        keep[n - 1] = true;
+        Deque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[]{0, n - 1});
+        while (!stack.isEmpty()) {
+            int[] span = stack.pop();
+            int first = span[0];
+            int last = span[1];
+            double maxDistance = -1;
+            int farthest = -1;
+            for (int i = first + 1; i < last; i++) {
+                double distance = segmentDistance(x[i], y[i], x[first], y[first], x[last], y[last]);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+            if (farthest >= 0 && maxDistance > toleranceMeters) {
+                keep[farthest] = true;
+                stack.push(new int[]{first, farthest});
+                stack.push(new int[]{farthest, last});
+            }
+        }
+        return keep;
+    }
+
+    private static double segmentDistance(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        if (lengthSquared == 0) {
+            return Math.hypot(px - ax, py - ay);
+        }
+        double t = Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        return Math.hypot(px - (ax + t * dx), py - (ay + t * dy));
+    }
+}
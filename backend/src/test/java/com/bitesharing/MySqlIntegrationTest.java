@@ -0,0 +1,115 @@
+package com.bitesharing;
+
+import com.bitesharing.model.Donation;
+import com.bitesharing.model.User;
+import com.bitesharing.repository.DonationRepository;
+import com.bitesharing.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base for tests that need the real schema and MySQL semantics (conditional updates, upserts,
+ * row locks). One container is shared by every subclass so the Spring context can be cached;
+ * the tests are skipped when no Docker daemon is available.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class MySqlIntegrationTest {
+
+    private static final long TASK_TIMEOUT_SECONDS = 120;
+
+    @ServiceConnection
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    static {
+        MYSQL.start();
+    }
+
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected DonationRepository donationRepository;
+
+    protected User newUser(User.UserType type) {
+        String name = type.name().toLowerCase() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@test.local");
+        user.setPassword("not-a-real-hash");
+        user.setFullName("Test " + name);
+        user.setUserType(type);
+        user.setStatus(User.UserStatus.APPROVED);
+        return userRepository.save(user);
+    }
+
+    protected Donation newDonation(User donor) {
+        Donation donation = new Donation();
+        donation.setDonor(donor);
+        donation.setFoodName("Test meal");
+        donation.setQuantity(10);
+        donation.setExpiryDate(LocalDateTime.now().plusDays(1));
+        donation.setDonationType(Donation.DonationType.HUMAN);
+        donation.setStatus(Donation.DonationStatus.PENDING);
+        return donationRepository.save(donation);
+    }
+
+    /**
+     * Releases every task at once on a pool of the given size and waits for all of them. Results
+     * come back in task order; an exception a task does not handle itself fails the caller through
+     * {@link Future#get}. The elapsed time and rate are logged under {@code label}.
+     */
+    protected <T> ConcurrentRun<T> runConcurrently(String label, int threads, List<? extends Callable<T>> tasks)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>(tasks.size());
+            for (Callable<T> task : tasks) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+
+            long started = System.nanoTime();
+            start.countDown();
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : futures) {
+                results.add(future.get(TASK_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+            ConcurrentRun<T> run = new ConcurrentRun<>(results, Duration.ofNanos(System.nanoTime() - started));
+            log.info("{}: {} tasks on {} threads in {} ms ({} per second)", label, tasks.size(), threads,
+                    run.elapsed().toMillis(), Math.round(run.perSecond()));
+            return run;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    protected record ConcurrentRun<T>(List<T> results, Duration elapsed) {
+
+        public double perSecond() {
+            return results.size() * 1e9 / Math.max(1, elapsed.toNanos());
+        }
+    }
+}
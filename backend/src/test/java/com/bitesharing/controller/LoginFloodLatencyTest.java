@@ -0,0 +1,130 @@
+package com.bitesharing.controller;
+
+import com.bitesharing.MySqlIntegrationTest;
+import com.bitesharing.model.Donation;
+import com.bitesharing.model.User;
+import com.bitesharing.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Floods /api/auth/login with real BCrypt work while timing an authenticated GET. The hashing pool
+ * caps the cores a storm can take, so the GET should stay close to its idle latency and the
+ * surplus logins should be turned away with 503 rather than queue up.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoginFloodLatencyTest extends MySqlIntegrationTest {
+
+    private static final int FLOODERS = 64;
+    private static final int SAMPLES = 100;
+    private static final String PASSWORD = "flood-password";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    @Test
+    void nonAuthLatencyStaysFlatDuringLoginFlood() throws Exception {
+        User user = newUser(User.UserType.NGO);
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        userRepository.save(user);
+        Donation donation = newDonation(newUser(User.UserType.HOTEL));
+        HttpRequest get = HttpRequest.newBuilder(uri("/api/donations/" + donation.getId()))
+                .header("Authorization", "Bearer " + jwtUtil.generateToken(user))
+                .GET().build();
+        HttpRequest login = HttpRequest.newBuilder(uri("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + user.getUsername() + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .build();
+
+        sample(get, SAMPLES);
+        long[] idle = sample(get, SAMPLES);
+
+        AtomicBoolean flooding = new AtomicBoolean(true);
+        Map<Integer, AtomicInteger> loginStatuses = new ConcurrentHashMap<>();
+        ExecutorService flooders = Executors.newFixedThreadPool(FLOODERS);
+        long[] flooded;
+        try {
+            for (int i = 0; i < FLOODERS; i++) {
+                flooders.submit(() -> {
+                    while (flooding.get()) {
+                        int status = client.send(login, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        loginStatuses.computeIfAbsent(status, key -> new AtomicInteger()).incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            // Let the hashing pool and its queue fill before measuring
+            Thread.sleep(1_000);
+            flooded = sample(get, SAMPLES);
+        } finally {
+            flooding.set(false);
+            flooders.shutdown();
+            flooders.awaitTermination(30, TimeUnit.SECONDS);
+        }
+
+        log.info("GET p50/p95 idle {}/{} ms, during login flood {}/{} ms; login statuses {}",
+                millis(percentile(idle, 50)), millis(percentile(idle, 95)),
+                millis(percentile(flooded, 50)), millis(percentile(flooded, 95)), loginStatuses);
+
+        assertThat(loginStatuses.keySet()).isSubsetOf(200, 503);
+        assertThat(loginStatuses.values().stream().mapToInt(AtomicInteger::get).sum()).isGreaterThan(FLOODERS);
+        assertThat(percentile(flooded, 50)).isLessThan(3 * percentile(idle, 50) + millisToNanos(25));
+        assertThat(percentile(flooded, 95)).isLessThan(3 * percentile(idle, 95) + millisToNanos(50));
+    }
+
+    private long[] sample(HttpRequest request, int count) throws Exception {
+        long[] nanos = new long[count];
+        for (int i = 0; i < count; i++) {
+            long started = System.nanoTime();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            nanos[i] = System.nanoTime() - started;
+            assertThat(response.statusCode()).isEqualTo(200);
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+
+    private static long millisToNanos(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1e6);
+    }
+}
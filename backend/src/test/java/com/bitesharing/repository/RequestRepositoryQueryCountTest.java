@@ -0,0 +1,104 @@
+package com.bitesharing.repository;
+
+import com.bitesharing.MySqlIntegrationTest;
+import com.bitesharing.model.Donation;
+import com.bitesharing.model.Request;
+import com.bitesharing.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Serialises request listings the way the controllers do (inside an open session, so lazy
+ * associations would load on access) and checks the statement count does not grow with the
+ * number of rows.
+ */
+class RequestRepositoryQueryCountTest extends MySqlIntegrationTest {
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void requesterListingCostIsIndependentOfSize() {
+        User small = newUser(User.UserType.NGO);
+        User large = newUser(User.UserType.NGO);
+        seedRequests(small, null, 1);
+        seedRequests(large, null, 100);
+
+        long one = statementsToSerialize(repository -> repository.findByRequesterId(small.getId()), 1);
+        long hundred = statementsToSerialize(repository -> repository.findByRequesterId(large.getId()), 100);
+
+        assertThat(hundred).isEqualTo(one);
+    }
+
+    @Test
+    void volunteerListingCostIsIndependentOfSize() {
+        User small = newUser(User.UserType.VOLUNTEER);
+        User large = newUser(User.UserType.VOLUNTEER);
+        seedRequests(null, small, 1);
+        seedRequests(null, large, 100);
+
+        long one = statementsToSerialize(repository -> repository.findByAssignedVolunteerId(small.getId()), 1);
+        long hundred = statementsToSerialize(repository -> repository.findByAssignedVolunteerId(large.getId()), 100);
+
+        assertThat(hundred).isEqualTo(one);
+    }
+
+    private long statementsToSerialize(Function<RequestRepository, List<Request>> listing, int expectedRows) {
+        return transactionTemplate.execute(status -> {
+            statistics.clear();
+            List<Request> requests = listing.apply(requestRepository);
+            try {
+                objectMapper.writeValueAsString(requests);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            assertThat(requests).hasSize(expectedRows);
+            return statistics.getPrepareStatementCount();
+        });
+    }
+
+    /**
+     * Every row gets its own donor, and its own requester or volunteer where none is given, so a
+     * lazily loaded association costs one statement per row instead of one per listing.
+     */
+    private void seedRequests(User requester, User volunteer, int count) {
+        for (int i = 0; i < count; i++) {
+            Donation donation = newDonation(newUser(User.UserType.HOTEL));
+            Request request = new Request();
+            request.setDonation(donation);
+            request.setRequester(requester != null ? requester : newUser(User.UserType.NGO));
+            request.setAssignedVolunteer(volunteer != null ? volunteer : newUser(User.UserType.VOLUNTEER));
+            request.setRequesterType(Request.RequesterType.NGO);
+            request.setStatus(Request.RequestStatus.ACCEPTED);
+            requestRepository.save(request);
+        }
+    }
+}
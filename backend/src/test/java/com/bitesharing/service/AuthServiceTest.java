@@ -0,0 +1,114 @@
+package com.bitesharing.service;
+
+import com.bitesharing.dto.AuthRequest;
+import com.bitesharing.model.User;
+import com.bitesharing.repository.UserRepository;
+import com.bitesharing.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthServiceTest {
+
+    private static final String PASSWORD = "secret";
+
+    private UserRepository userRepository;
+    private UserCache userCache;
+    private PasswordHashingService passwordHashingService;
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userCache = mock(UserCache.class);
+        // Configured cost is 5; stored hashes below that get upgraded on login
+        passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(5), 1, 4, 5_000);
+        JwtUtil jwtUtil = new JwtUtil("test-secret-that-is-at-least-thirty-two-bytes-long", 60_000L, 100, 60_000);
+        authService = new AuthService(userRepository, userCache, passwordHashingService, jwtUtil);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    @Test
+    void loginUpgradesHashMadeWithLowerCost() {
+        String weak = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        User user = user(weak);
+        when(userCache.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(userRepository.replacePassword(eq(1L), eq(weak), anyString())).thenReturn(1);
+
+        assertThat(authService.login(request(PASSWORD)).getToken()).isNotBlank();
+
+        ArgumentCaptor<String> upgraded = ArgumentCaptor.forClass(String.class);
+        verify(userRepository).replacePassword(eq(1L), eq(weak), upgraded.capture());
+        assertThat(upgraded.getValue()).startsWith("$2a$05$");
+        assertThat(passwordHashingService.matches(PASSWORD, upgraded.getValue())).isTrue();
+        assertThat(passwordHashingService.needsRehash(upgraded.getValue())).isFalse();
+        verify(userCache).evict(1L);
+    }
+
+    @Test
+    void lostRehashRaceLeavesCacheAlone() {
+        String weak = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        when(userCache.findByUsername("alice")).thenReturn(Optional.of(user(weak)));
+        when(userRepository.replacePassword(anyLong(), anyString(), anyString())).thenReturn(0);
+
+        authService.login(request(PASSWORD));
+
+        verify(userCache, never()).evict(any());
+    }
+
+    @Test
+    void loginKeepsHashAtCurrentCost() {
+        String current = new BCryptPasswordEncoder(5).encode(PASSWORD);
+        when(userCache.findByUsername("alice")).thenReturn(Optional.of(user(current)));
+
+        authService.login(request(PASSWORD));
+
+        verify(userRepository, never()).replacePassword(anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    void wrongPasswordIsNotRehashed() {
+        String weak = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        when(userCache.findByUsername("alice")).thenReturn(Optional.of(user(weak)));
+
+        assertThatThrownBy(() -> authService.login(request("wrong"))).hasMessage("Invalid credentials");
+
+        verify(userRepository, never()).replacePassword(anyLong(), anyString(), anyString());
+    }
+
+    private static User user(String hash) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("alice");
+        user.setPassword(hash);
+        user.setUserType(User.UserType.VOLUNTEER);
+        user.setStatus(User.UserStatus.APPROVED);
+        return user;
+    }
+
+    private static AuthRequest request(String password) {
+        AuthRequest request = new AuthRequest();
+        request.setUsername("alice");
+        request.setPassword(password);
+        return request;
+    }
+}
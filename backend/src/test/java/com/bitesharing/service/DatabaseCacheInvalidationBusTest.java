@@ -0,0 +1,65 @@
+package com.bitesharing.service;
+
+import com.bitesharing.MySqlIntegrationTest;
+import com.bitesharing.repository.CacheInvalidationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two bus instances on the shared schema stand in for two application nodes.
+ */
+class DatabaseCacheInvalidationBusTest extends MySqlIntegrationTest {
+
+    @Autowired
+    private CacheInvalidationRepository cacheInvalidationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private DatabaseCacheInvalidationBus nodeA;
+    private DatabaseCacheInvalidationBus nodeB;
+    private final List<Object> seenOnA = new CopyOnWriteArrayList<>();
+    private final List<Object> seenOnB = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        nodeA = new DatabaseCacheInvalidationBus(cacheInvalidationRepository, transactionManager, 2, 3_600_000);
+        nodeB = new DatabaseCacheInvalidationBus(cacheInvalidationRepository, transactionManager, 2, 3_600_000);
+        nodeA.start();
+        nodeB.start();
+        nodeA.subscribe("test", seenOnA::add);
+        nodeB.subscribe("test", seenOnB::add);
+    }
+
+    @Test
+    void publishedKeysReachTheOtherNodeOnItsNextPoll() {
+        nodeA.publish("test", 1L);
+        nodeA.publish("test", 2L);
+        nodeA.publish("test", 3L);
+
+        assertThat(seenOnA).containsExactly(1L, 2L, 3L);
+        assertThat(seenOnB).isEmpty();
+
+        // Batch size 2, so one poll has to page through the log
+        nodeB.poll();
+        assertThat(seenOnB).containsExactly("1", "2", "3");
+    }
+
+    @Test
+    void nodesDoNotReapplyTheirOwnInvalidationsOrRepeatSeenOnes() {
+        nodeA.publish("test", 7L);
+        nodeB.poll();
+        nodeA.poll();
+        nodeB.poll();
+
+        assertThat(seenOnA).containsExactly(7L);
+        assertThat(seenOnB).containsExactly("7");
+    }
+}
@@ -0,0 +1,136 @@
+package com.bitesharing.service;
+
+import com.bitesharing.MySqlIntegrationTest;
+import com.bitesharing.exception.AlreadyRatedException;
+import com.bitesharing.model.Donation;
+import com.bitesharing.model.FreshnessAggregate;
+import com.bitesharing.model.FreshnessRating;
+import com.bitesharing.model.User;
+import com.bitesharing.repository.FreshnessAggregateRepository;
+import com.bitesharing.repository.FreshnessRatingRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FreshnessRatingLoadTest extends MySqlIntegrationTest {
+
+    private static final int THREADS = 32;
+    private static final int DONATIONS = 20;
+    private static final int RATERS = 20;
+
+    @Autowired
+    private FreshnessService freshnessService;
+
+    @Autowired
+    private FreshnessRatingRepository freshnessRatingRepository;
+
+    @Autowired
+    private FreshnessAggregateRepository freshnessAggregateRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void singleInsertPathStoresEveryDistinctRating() throws Exception {
+        List<Donation> fiveReadDonations = newDonations();
+        List<Donation> insertDonations = newDonations();
+        List<User> raters = newRaters();
+
+        ConcurrentRun<Void> before = runConcurrently("Ratings, five reads per insert", THREADS,
+                ratings(fiveReadDonations, raters, this::rateWithFiveReads));
+        ConcurrentRun<Void> after = runConcurrently("Ratings, single insert", THREADS,
+                ratings(insertDonations, raters, freshnessService::rate));
+        log.info("Single insert path: {}x the ratings per second of the five-read path",
+                String.format("%.2f", after.perSecond() / before.perSecond()));
+
+        for (Donation donation : insertDonations) {
+            assertThat(freshnessRatingRepository.findByDonationId(donation.getId())).hasSize(RATERS);
+            assertThat(freshnessAggregateRepository.findById(donation.getId()))
+                    .get().extracting(FreshnessAggregate::getRatingCount).isEqualTo(RATERS);
+        }
+    }
+
+    @Test
+    void concurrentDuplicatesOfOnePairStoreExactlyOneRating() throws Exception {
+        Donation donation = newDonation(newUser(User.UserType.HOTEL));
+        User rater = newUser(User.UserType.NEEDY);
+        List<Callable<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < THREADS * 4; i++) {
+            attempts.add(() -> {
+                try {
+                    freshnessService.rate(donation.getId(), rater.getId(), 4, null);
+                    return true;
+                } catch (AlreadyRatedException e) {
+                    return false;
+                }
+            });
+        }
+
+        List<Boolean> stored = runConcurrently("Duplicate ratings of one pair", THREADS, attempts).results();
+
+        assertThat(stored).filteredOn(Boolean::booleanValue).hasSize(1);
+        assertThat(stored).filteredOn(accepted -> !accepted).hasSize(THREADS * 4 - 1);
+        assertThat(freshnessRatingRepository.findByDonationId(donation.getId())).hasSize(1);
+        assertThat(freshnessAggregateRepository.findById(donation.getId()))
+                .get().extracting(FreshnessAggregate::getRatingCount).isEqualTo(1);
+    }
+
+    // The write path before the unique key: duplicate check, two existence checks, two loads, then the insert
+    private void rateWithFiveReads(Long donationId, Long userId, Integer rating, String comment) {
+        if (freshnessRatingRepository.existsByDonationIdAndRatedById(donationId, userId)
+                || !donationRepository.existsById(donationId)
+                || !userRepository.existsById(userId)) {
+            throw new IllegalStateException("Unexpected rejection for " + donationId + "/" + userId);
+        }
+        FreshnessRating freshnessRating = new FreshnessRating();
+        freshnessRating.setDonation(donationRepository.findById(donationId).orElse(null));
+        freshnessRating.setRatedBy(userRepository.findById(userId).orElse(null));
+        freshnessRating.setRating(rating);
+        freshnessRating.setComment(comment);
+        transactionTemplate.executeWithoutResult(status -> {
+            freshnessRatingRepository.save(freshnessRating);
+            freshnessAggregateRepository.addRating(donationId, rating);
+        });
+    }
+
+    private List<Callable<Void>> ratings(List<Donation> donations, List<User> raters, RatingWriter writer) {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Donation donation : donations) {
+            for (User rater : raters) {
+                tasks.add(() -> {
+                    writer.rate(donation.getId(), rater.getId(), 1 + (int) (rater.getId() % 5), null);
+                    return null;
+                });
+            }
+        }
+        return tasks;
+    }
+
+    private List<Donation> newDonations() {
+        User donor = newUser(User.UserType.HOTEL);
+        List<Donation> donations = new ArrayList<>();
+        for (int i = 0; i < DONATIONS; i++) {
+            donations.add(newDonation(donor));
+        }
+        return donations;
+    }
+
+    private List<User> newRaters() {
+        List<User> raters = new ArrayList<>();
+        for (int i = 0; i < RATERS; i++) {
+            raters.add(newUser(User.UserType.NEEDY));
+        }
+        return raters;
+    }
+
+    @FunctionalInterface
+    private interface RatingWriter {
+        void rate(Long donationId, Long userId, Integer rating, String comment);
+    }
+}
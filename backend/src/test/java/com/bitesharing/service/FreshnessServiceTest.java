@@ -0,0 +1,80 @@
+package com.bitesharing.service;
+
+import com.bitesharing.dto.FreshnessRatingRow;
+import com.bitesharing.exception.AlreadyRatedException;
+import com.bitesharing.model.FreshnessRating;
+import com.bitesharing.repository.DonationRepository;
+import com.bitesharing.repository.FreshnessAggregateRepository;
+import com.bitesharing.repository.FreshnessRatingRepository;
+import com.bitesharing.repository.UserRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FreshnessServiceTest {
+
+    private FreshnessRatingRepository ratingRepository;
+    private FreshnessAggregateRepository aggregateRepository;
+    private FreshnessService freshnessService;
+
+    @BeforeEach
+    void setUp() {
+        ratingRepository = mock(FreshnessRatingRepository.class);
+        aggregateRepository = mock(FreshnessAggregateRepository.class);
+        freshnessService = new FreshnessService(ratingRepository, aggregateRepository,
+                mock(DonationRepository.class), mock(UserRepository.class), mock(DataSeedService.class));
+    }
+
+    @Test
+    void storesRatingAndUpdatesAggregate() {
+        when(ratingRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            FreshnessRating rating = invocation.getArgument(0);
+            rating.setId(7L);
+            return rating;
+        });
+
+        FreshnessRatingRow row = freshnessService.rate(1L, 2L, 4, "fine");
+
+        assertThat(row.getId()).isEqualTo(7L);
+        assertThat(row.getRating()).isEqualTo(4);
+        verify(aggregateRepository).addRating(1L, 4);
+    }
+
+    @Test
+    void duplicateKeyBecomesAlreadyRated() {
+        when(ratingRepository.saveAndFlush(any())).thenThrow(violation(1062, "Duplicate entry '1-2'"));
+
+        assertThatThrownBy(() -> freshnessService.rate(1L, 2L, 4, null))
+                .isInstanceOf(AlreadyRatedException.class);
+        verify(aggregateRepository, never()).addRating(anyLong(), anyInt());
+    }
+
+    @Test
+    void otherIntegrityViolationsPropagate() {
+        DataIntegrityViolationException foreignKey = violation(1452, "Cannot add or update a child row");
+        when(ratingRepository.saveAndFlush(any())).thenThrow(foreignKey);
+
+        assertThatThrownBy(() -> freshnessService.rate(1L, 2L, 4, null)).isSameAs(foreignKey);
+        verify(aggregateRepository, never()).addRating(anyLong(), anyInt());
+    }
+
+    // Same nesting the Hibernate-to-Spring translation produces for a failed MySQL insert
+    private static DataIntegrityViolationException violation(int errorCode, String message) {
+        SQLIntegrityConstraintViolationException sql = new SQLIntegrityConstraintViolationException(message, "23000", errorCode);
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", sql, "insert"));
+    }
+}
@@ -0,0 +1,141 @@
+package com.bitesharing.service;
+
+import com.bitesharing.MySqlIntegrationTest;
+import com.bitesharing.model.GamificationEvent;
+import com.bitesharing.model.PointsHistory;
+import com.bitesharing.model.User;
+import com.bitesharing.repository.GamificationEventRepository;
+import com.bitesharing.repository.PointsHistoryRepository;
+import com.bitesharing.repository.UserPointsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Redelivered and duplicated outbox events must award once. The scheduled worker drains the same
+ * table in the background, so these tests also exercise two drainers racing on one event.
+ */
+class GamificationOutboxIdempotencyTest extends MySqlIntegrationTest {
+
+    private static final int POINTS = 15;
+    private static final int MAX_ATTEMPTS = 5; // gamification.outbox.max-attempts
+
+    @Autowired
+    private GamificationOutboxWorker gamificationOutboxWorker;
+
+    @Autowired
+    private GamificationEventRepository gamificationEventRepository;
+
+    @Autowired
+    private PointsHistoryRepository pointsHistoryRepository;
+
+    @Autowired
+    private UserPointsRepository userPointsRepository;
+
+    @Test
+    void redeliveryOfAnAppliedEventAwardsNothing() throws Exception {
+        User user = newUser(User.UserType.VOLUNTEER);
+        enqueue(user, 501L);
+        drainUntilEmpty(user);
+        int total = totalPoints(user);
+
+        // As if the worker crashed after applying the award but before deleting the row
+        enqueue(user, 501L);
+        drainUntilEmpty(user);
+
+        assertThat(totalPoints(user)).isEqualTo(total);
+        assertThat(awardsFor(user, 501L)).isEqualTo(1);
+        assertHistoryMatchesTotal(user);
+    }
+
+    @Test
+    void duplicateEventsForOneSourceAwardOnce() throws Exception {
+        User user = newUser(User.UserType.VOLUNTEER);
+        for (int i = 0; i < 5; i++) {
+            enqueue(user, 777L);
+        }
+
+        // Several drainers at once: only one may apply, the rest see the award or lose on the unique key
+        List<Callable<Void>> drainers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            drainers.add(() -> {
+                gamificationOutboxWorker.drain();
+                return null;
+            });
+        }
+        runConcurrently("Concurrent outbox drains", drainers.size(), drainers);
+        drainUntilEmpty(user);
+
+        assertThat(awardsFor(user, 777L)).isEqualTo(1);
+        assertThat(pointsHistoryRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).stream()
+                .filter(row -> row.getRelatedEntityType() == PointsHistory.RelatedEntityType.DELIVERY)
+                .mapToInt(PointsHistory::getPoints).sum()).isEqualTo(POINTS);
+        assertHistoryMatchesTotal(user);
+    }
+
+    @Test
+    void eventsPastTheAttemptLimitAreCountedAsDeadLettered() {
+        User user = newUser(User.UserType.VOLUNTEER);
+        long before = gamificationOutboxWorker.getStats().get("deadLettered");
+        GamificationEvent parked = enqueue(user, 900L, MAX_ATTEMPTS);
+        try {
+            assertThat(gamificationOutboxWorker.getStats().get("deadLettered")).isEqualTo(before + 1);
+            gamificationOutboxWorker.drain();
+            assertThat(gamificationEventRepository.existsById(parked.getId())).isTrue();
+            assertThat(awardsFor(user, 900L)).isZero();
+        } finally {
+            gamificationEventRepository.deleteById(parked.getId());
+        }
+    }
+
+    private GamificationEvent enqueue(User user, Long entityId) {
+        return enqueue(user, entityId, 0);
+    }
+
+    private GamificationEvent enqueue(User user, Long entityId, int attempts) {
+        GamificationEvent event = new GamificationEvent();
+        event.setUserId(user.getId());
+        event.setPoints(POINTS);
+        event.setReason("Completed delivery");
+        event.setRelatedEntityType(PointsHistory.RelatedEntityType.DELIVERY);
+        event.setRelatedEntityId(entityId);
+        event.setAttempts(attempts);
+        return gamificationEventRepository.save(event);
+    }
+
+    // A drain that lost a race leaves its event for the next poll, so drain until the user's events are gone
+    private void drainUntilEmpty(User user) throws InterruptedException {
+        for (int attempt = 0; attempt < 50; attempt++) {
+            gamificationOutboxWorker.drain();
+            boolean empty = gamificationEventRepository.findAll().stream()
+                    .noneMatch(event -> event.getUserId().equals(user.getId()));
+            if (empty) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Outbox events for user " + user.getId() + " were not drained");
+    }
+
+    private long awardsFor(User user, Long entityId) {
+        return pointsHistoryRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).stream()
+                .filter(row -> entityId.equals(row.getRelatedEntityId())
+                        && row.getRelatedEntityType() == PointsHistory.RelatedEntityType.DELIVERY)
+                .count();
+    }
+
+    private int totalPoints(User user) {
+        return userPointsRepository.findByUserId(user.getId()).orElseThrow().getTotalPoints();
+    }
+
+    private void assertHistoryMatchesTotal(User user) {
+        int history = pointsHistoryRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).stream()
+                .mapToInt(PointsHistory::getPoints).sum();
+        assertThat(history).isEqualTo(totalPoints(user));
+    }
+}
@@ -0,0 +1,64 @@
+package com.bitesharing.service;
+
+import com.bitesharing.MySqlIntegrationTest;
+import com.bitesharing.model.PointsHistory;
+import com.bitesharing.model.User;
+import com.bitesharing.model.UserPoints;
+import com.bitesharing.repository.PointsHistoryRepository;
+import com.bitesharing.repository.UserBadgeRepository;
+import com.bitesharing.repository.UserPointsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GamificationPointsConcurrencyTest extends MySqlIntegrationTest {
+
+    private static final int WRITERS = 64;
+    private static final int AWARDS_PER_WRITER = 50;
+    private static final int POINTS_PER_AWARD = 3;
+    private static final int BADGE_BONUS_POINTS = 50;
+
+    @Autowired
+    private GamificationService gamificationService;
+
+    @Autowired
+    private UserPointsRepository userPointsRepository;
+
+    @Autowired
+    private UserBadgeRepository userBadgeRepository;
+
+    @Autowired
+    private PointsHistoryRepository pointsHistoryRepository;
+
+    @Test
+    void concurrentAwardsToOneUserLoseNoUpdates() throws Exception {
+        User user = newUser(User.UserType.VOLUNTEER);
+
+        int awards = WRITERS * AWARDS_PER_WRITER;
+        List<Callable<Void>> tasks = new ArrayList<>(awards);
+        for (int i = 0; i < awards; i++) {
+            tasks.add(() -> {
+                gamificationService.addPoints(user.getId(), POINTS_PER_AWARD, "Stress award",
+                        PointsHistory.RelatedEntityType.DELIVERY, null);
+                return null;
+            });
+        }
+
+        runConcurrently("Point awards to one user", WRITERS, tasks);
+
+        int badges = userBadgeRepository.findBadgeIdsByUserId(user.getId()).size();
+        int expected = awards * POINTS_PER_AWARD + badges * BADGE_BONUS_POINTS;
+        UserPoints points = userPointsRepository.findByUserId(user.getId()).orElseThrow();
+        assertThat(points.getTotalPoints()).isEqualTo(expected);
+        assertThat(points.getLevel()).isEqualTo(GamificationService.calculateLevel(expected));
+
+        List<PointsHistory> history = pointsHistoryRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
+        assertThat(history).hasSize(awards + badges);
+        assertThat(history.stream().mapToInt(PointsHistory::getPoints).sum()).isEqualTo(expected);
+    }
+}
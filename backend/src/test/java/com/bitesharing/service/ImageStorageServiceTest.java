@@ -0,0 +1,111 @@
+package com.bitesharing.service;
+
+import com.bitesharing.exception.UnsupportedImageException;
+import com.bitesharing.util.TestImages;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageStorageServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path uploads;
+    private ImageStorageService storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        uploads = Files.createDirectories(tempDir.resolve("uploads"));
+        storage = new ImageStorageService(uploads.toString(), 40, 80, 50_000_000, 1, 10, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        storage.shutdown();
+    }
+
+    @Test
+    void identicalUploadsAreStoredOnce() throws IOException {
+        byte[] photo = TestImages.jpegWithMetadata(64, 48, 1);
+
+        String first = storage.store(upload("a.jpg", photo));
+        String second = storage.store(upload("b.JPEG", photo));
+
+        assertThat(first).isEqualTo(second).matches("[0-9a-f]{64}\\.jpg");
+        assertThat(filesNamed(first)).hasSize(1);
+    }
+
+    @Test
+    void servedOriginalCarriesNoMetadata() throws IOException {
+        String filename = storage.store(upload("camera.jpg", TestImages.jpegWithMetadata(64, 48, 6)));
+
+        ImageStorageService.Resolved original = storage.resolve(filename, ImageStorageService.Size.ORIGINAL);
+
+        assertThat(original.fallback()).isFalse();
+        assertThat(original.path().getFileName().toString()).isNotEqualTo(filename);
+        assertThat(text(original.path())).doesNotContain("secret");
+        // Until the variant is rendered it falls back to the stripped copy, never the upload itself
+        ImageStorageService.Resolved medium = storage.resolve(filename, ImageStorageService.Size.MEDIUM);
+        assertThat(text(medium.path())).doesNotContain("secret");
+    }
+
+    @Test
+    void legacyFilesAreStrippedOnFirstRequest() throws IOException {
+        Files.write(uploads.resolve("photo.jpg"), TestImages.jpegWithMetadata(64, 48, 3));
+
+        ImageStorageService.Resolved original = storage.resolve("photo.jpg", ImageStorageService.Size.ORIGINAL);
+
+        assertThat(original.path()).isEqualTo(uploads.resolve("photo_original.jpg"));
+        assertThat(text(original.path())).doesNotContain("secret");
+    }
+
+    @Test
+    void uploadsThatCannotBeStrippedAreRefused() throws IOException {
+        MockMultipartFile file = upload("notes.jpg", "not really a photo".getBytes(StandardCharsets.US_ASCII));
+
+        assertThatThrownBy(() -> storage.store(file)).isInstanceOf(UnsupportedImageException.class);
+        try (Stream<Path> files = Files.walk(uploads)) {
+            assertThat(files.filter(Files::isRegularFile)).isEmpty();
+        }
+    }
+
+    @Test
+    void namesOutsideTheUploadDirectoryAreNotResolved() throws IOException {
+        Path outside = Files.createDirectories(tempDir.resolve("outside"));
+        Files.write(outside.resolve("secret.jpg"), TestImages.jpegWithMetadata(8, 8, 1));
+        Files.write(tempDir.resolve("sibling.jpg"), TestImages.jpegWithMetadata(8, 8, 1));
+
+        for (String name : List.of("../outside/secret.jpg", "../sibling.jpg", "..", ".", "..%2fsibling.jpg",
+                "a/../../sibling.jpg", "outside/secret.jpg", tempDir.resolve("sibling.jpg").toString(),
+                ".hidden.jpg", "photo.jpg\\..\\..\\sibling.jpg", "")) {
+            assertThat(storage.resolve(name, ImageStorageService.Size.ORIGINAL)).as(name).isNull();
+        }
+    }
+
+    private static MockMultipartFile upload(String name, byte[] bytes) {
+        return new MockMultipartFile("file", name, "image/jpeg", bytes);
+    }
+
+    private List<Path> filesNamed(String name) throws IOException {
+        try (Stream<Path> files = Files.walk(uploads)) {
+            return files.filter(path -> path.getFileName().toString().equals(name)).toList();
+        }
+    }
+
+    private static String text(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.ISO_8859_1);
+    }
+}
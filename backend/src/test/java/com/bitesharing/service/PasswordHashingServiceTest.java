@@ -0,0 +1,105 @@
+package com.bitesharing.service;
+
+import com.bitesharing.exception.PasswordHashingBusyException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingServiceTest {
+
+    @Test
+    void encodesAndMatchesOffTheCallerThread() {
+        PasswordHashingService service = new PasswordHashingService(new BCryptPasswordEncoder(4), 2, 8, 5_000);
+        try {
+            String hash = service.encode("secret");
+
+            assertThat(service.matches("secret", hash)).isTrue();
+            assertThat(service.matches("wrong", hash)).isFalse();
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void onlyHashesBelowTheConfiguredCostNeedRehash() {
+        String weak = new BCryptPasswordEncoder(4).encode("secret");
+        String current = new BCryptPasswordEncoder(5).encode("secret");
+        PasswordHashingService service = new PasswordHashingService(new BCryptPasswordEncoder(5), 1, 1, 5_000);
+        try {
+            assertThat(service.needsRehash(weak)).isTrue();
+            assertThat(service.needsRehash(current)).isFalse();
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsWorkOnceThePoolIsSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordHashingService service = new PasswordHashingService(blockingEncoder(release), 1, 1, 10_000);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // One caller holds the only thread, the next waits in the only queue slot
+            Future<String> running = callers.submit(() -> service.encode("a"));
+            Future<String> queued = callers.submit(() -> service.encode("b"));
+            while (service.queuedTasks() < 1) {
+                Thread.sleep(5);
+            }
+
+            assertThatThrownBy(() -> service.encode("c")).isInstanceOf(PasswordHashingBusyException.class);
+
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("b");
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void callerThatGivesUpFreesItsQueueSlot() {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordHashingService service = new PasswordHashingService(blockingEncoder(release), 1, 1, 50);
+        try {
+            // Occupies the only thread and gives up waiting
+            assertThatThrownBy(() -> service.encode("a")).isInstanceOf(PasswordHashingBusyException.class);
+            // Waits in the only queue slot, gives up and takes its task out again
+            assertThatThrownBy(() -> service.encode("b")).isInstanceOf(PasswordHashingBusyException.class);
+
+            assertThat(service.queuedTasks()).isZero();
+        } finally {
+            release.countDown();
+            service.shutdown();
+        }
+    }
+
+    private static PasswordEncoder blockingEncoder(CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+    }
+}
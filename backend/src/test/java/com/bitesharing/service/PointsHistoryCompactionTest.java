@@ -0,0 +1,147 @@
+package com.bitesharing.service;
+
+import com.bitesharing.MySqlIntegrationTest;
+import com.bitesharing.dto.CursorPage;
+import com.bitesharing.dto.PointsHistoryRow;
+import com.bitesharing.model.PointsHistory;
+import com.bitesharing.model.User;
+import com.bitesharing.repository.PointsHistoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seeds per-event history across several months, compacts it and checks that nothing a user can
+ * see changes: totals, per-month counts, and a keyset walk over the mixed rollup and event rows.
+ */
+class PointsHistoryCompactionTest extends MySqlIntegrationTest {
+
+    private static final int USERS = 3;
+    private static final int OLD_MONTHS = 4;
+    private static final int EVENTS_PER_MONTH = 25;
+    private static final int RECENT_EVENTS = 10;
+    private static final AtomicLong ENTITY_IDS = new AtomicLong(1_000_000);
+
+    @Autowired
+    private PointsHistoryRepository pointsHistoryRepository;
+
+    @Autowired
+    private PointsHistoryCompactionService pointsHistoryCompactionService;
+
+    @Autowired
+    private GamificationService gamificationService;
+
+    @Test
+    void compactionKeepsTotalsAndCountsAndPagingSeesEveryRowOnce() {
+        Random random = new Random(42);
+        // Well outside the retention window, at the start of a month so every seeded month is whole
+        LocalDateTime firstMonth = LocalDateTime.now().minusMonths(OLD_MONTHS + 6)
+                .withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS);
+
+        List<User> users = new ArrayList<>();
+        Map<Long, Integer> totals = new HashMap<>();
+        Map<Long, Map<String, int[]>> expectedRollups = new HashMap<>();
+        for (int u = 0; u < USERS; u++) {
+            User user = newUser(User.UserType.VOLUNTEER);
+            users.add(user);
+            List<PointsHistory> seeded = new ArrayList<>();
+            for (int m = 0; m < OLD_MONTHS; m++) {
+                LocalDateTime month = firstMonth.plusMonths(m);
+                for (int e = 0; e < EVENTS_PER_MONTH; e++) {
+                    // Whole hours only, so many events share a created_at and the id has to break the tie
+                    LocalDateTime at = month.plusHours(random.nextInt(24 * 28));
+                    PointsHistory.RelatedEntityType type = randomType(random);
+                    PointsHistory event = event(user, 1 + random.nextInt(30), type, at);
+                    seeded.add(event);
+                    int[] rollup = expectedRollups.computeIfAbsent(user.getId(), id -> new HashMap<>())
+                            .computeIfAbsent(key(YearMonth.from(at), type), k -> new int[2]);
+                    rollup[0]++;
+                    rollup[1] += event.getPoints();
+                }
+            }
+            for (int e = 0; e < RECENT_EVENTS; e++) {
+                seeded.add(event(user, 1 + random.nextInt(30), randomType(random),
+                        LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.HOURS)));
+            }
+            pointsHistoryRepository.saveAll(seeded);
+            totals.put(user.getId(), seeded.stream().mapToInt(PointsHistory::getPoints).sum());
+        }
+
+        assertThat(pointsHistoryCompactionService.compact()).isGreaterThanOrEqualTo(OLD_MONTHS);
+
+        for (User user : users) {
+            List<PointsHistory> history = pointsHistoryRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
+            assertThat(history.stream().mapToInt(PointsHistory::getPoints).sum())
+                    .as("total for user %d", user.getId()).isEqualTo(totals.get(user.getId()));
+
+            Map<String, int[]> rollups = new HashMap<>();
+            for (PointsHistory row : history) {
+                if (row.getEventCount() != null) {
+                    assertThat(row.getCreatedAt().getDayOfMonth()).isEqualTo(1);
+                    int[] previous = rollups.put(key(YearMonth.from(row.getCreatedAt()), row.getRelatedEntityType()),
+                            new int[]{row.getEventCount(), row.getPoints()});
+                    assertThat(previous).as("one rollup per month and type").isNull();
+                }
+            }
+            assertThat(rollups).as("rollups for user %d", user.getId())
+                    .usingRecursiveComparison().isEqualTo(expectedRollups.get(user.getId()));
+            assertThat(history.stream().filter(row -> row.getEventCount() == null)).hasSize(RECENT_EVENTS);
+
+            assertPagingSeesEveryRowOnce(user.getId(), history);
+        }
+    }
+
+    private void assertPagingSeesEveryRowOnce(Long userId, List<PointsHistory> history) {
+        for (int size : new int[]{1, 3, 7, history.size()}) {
+            List<PointsHistoryRow> walked = new ArrayList<>();
+            Long cursor = null;
+            do {
+                CursorPage<PointsHistoryRow> page = gamificationService.getPointsHistoryPage(userId, cursor, size);
+                walked.addAll(page.getItems());
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+
+            Set<Long> ids = new HashSet<>();
+            walked.forEach(row -> assertThat(ids.add(row.getId())).as("row %d seen twice", row.getId()).isTrue());
+            assertThat(ids).as("page size %d", size)
+                    .isEqualTo(history.stream().map(PointsHistory::getId).collect(HashSet::new, Set::add, Set::addAll));
+            assertThat(walked).isSortedAccordingTo(Comparator.comparing(PointsHistoryRow::getCreatedAt)
+                    .thenComparing(PointsHistoryRow::getId).reversed());
+        }
+    }
+
+    private static PointsHistory event(User user, int points, PointsHistory.RelatedEntityType type, LocalDateTime at) {
+        PointsHistory event = new PointsHistory();
+        event.setUser(user);
+        event.setPoints(points);
+        event.setReason("Seeded " + type.name().toLowerCase() + " award");
+        event.setRelatedEntityType(type);
+        event.setRelatedEntityId(ENTITY_IDS.incrementAndGet());
+        event.setCreatedAt(at);
+        return event;
+    }
+
+    private static PointsHistory.RelatedEntityType randomType(Random random) {
+        PointsHistory.RelatedEntityType[] types = {PointsHistory.RelatedEntityType.DONATION,
+                PointsHistory.RelatedEntityType.DELIVERY, PointsHistory.RelatedEntityType.COMPOST};
+        return types[random.nextInt(types.length)];
+    }
+
+    private static String key(YearMonth month, PointsHistory.RelatedEntityType type) {
+        return month + "/" + type;
+    }
+}
@@ -0,0 +1,61 @@
+package com.bitesharing.service;
+
+import com.bitesharing.MySqlIntegrationTest;
+import com.bitesharing.exception.DonationAlreadyClaimedException;
+import com.bitesharing.model.Donation;
+import com.bitesharing.model.Request;
+import com.bitesharing.model.User;
+import com.bitesharing.repository.RequestRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestClaimConcurrencyTest extends MySqlIntegrationTest {
+
+    private static final int CLAIMERS = 300;
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Test
+    void exactlyOneOfManyConcurrentClaimsWins() throws Exception {
+        User donor = newUser(User.UserType.HOTEL);
+        Donation donation = newDonation(donor);
+        List<User> claimers = new ArrayList<>();
+        for (int i = 0; i < CLAIMERS; i++) {
+            claimers.add(newUser(User.UserType.NGO));
+        }
+
+        List<Callable<Outcome>> claims = new ArrayList<>();
+        for (User claimer : claimers) {
+            claims.add(() -> {
+                try {
+                    requestService.createRequest(donation.getId(), claimer.getId(), Request.RequesterType.NGO);
+                    return Outcome.WON;
+                } catch (DonationAlreadyClaimedException e) {
+                    return Outcome.REJECTED;
+                }
+            });
+        }
+
+        List<Outcome> outcomes = runConcurrently("Concurrent claims", 64, claims).results();
+
+        assertThat(outcomes).filteredOn(outcome -> outcome == Outcome.WON).hasSize(1);
+        assertThat(outcomes).filteredOn(outcome -> outcome == Outcome.REJECTED).hasSize(CLAIMERS - 1);
+        assertThat(requestRepository.findByDonationId(donation.getId())).hasSize(1);
+        assertThat(donationRepository.findById(donation.getId()))
+                .get().extracting(Donation::getStatus).isEqualTo(Donation.DonationStatus.ACCEPTED);
+    }
+
+    private enum Outcome {
+        WON, REJECTED
+    }
+}
@@ -0,0 +1,96 @@
+package com.bitesharing.service;
+
+import com.bitesharing.model.User;
+import com.bitesharing.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two cache instances on one bus stand in for two application nodes.
+ */
+class UserCacheInvalidationTest {
+
+    private UserRepository userRepository;
+    private UserCache nodeA;
+    private UserCache nodeB;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        // Every load returns a fresh instance, so a reload is visible as a different object
+        when(userRepository.findById(1L)).thenAnswer(invocation -> Optional.of(user()));
+        when(userRepository.findByUsername("alice")).thenAnswer(invocation -> Optional.of(user()));
+        CacheInvalidationBus bus = new InMemoryCacheInvalidationBus();
+        nodeA = new UserCache(userRepository, bus, 100, 60_000);
+        nodeB = new UserCache(userRepository, bus, 100, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void evictOnOneNodeInvalidatesTheOther() {
+        User cachedOnA = nodeA.findById(1L).orElseThrow();
+        User cachedOnB = nodeB.findById(1L).orElseThrow();
+        assertThat(nodeB.findById(1L)).containsSame(cachedOnB);
+        verify(userRepository, times(2)).findById(1L);
+
+        nodeA.evict(1L);
+
+        assertThat(nodeB.findById(1L).orElseThrow()).isNotSameAs(cachedOnB);
+        assertThat(nodeA.findById(1L).orElseThrow()).isNotSameAs(cachedOnA);
+        verify(userRepository, times(4)).findById(1L);
+    }
+
+    @Test
+    void evictAlsoDropsUsernameLookupsOnTheOtherNode() {
+        User cachedOnB = nodeB.findByUsername("alice").orElseThrow();
+        assertThat(nodeB.findByUsername("alice")).containsSame(cachedOnB);
+
+        nodeA.evict(1L);
+
+        assertThat(nodeB.findByUsername("alice").orElseThrow()).isNotSameAs(cachedOnB);
+        verify(userRepository, times(2)).findByUsername("alice");
+    }
+
+    @Test
+    void otherNodesAreInvalidatedOnlyAfterCommit() {
+        nodeA.findById(1L);
+        User cachedOnB = nodeB.findById(1L).orElseThrow();
+
+        TransactionSynchronizationManager.initSynchronization();
+        nodeA.evict(1L);
+
+        // Not committed yet: node B keeps serving its copy rather than reloading the old row
+        assertThat(nodeB.findById(1L)).containsSame(cachedOnB);
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(nodeB.findById(1L).orElseThrow()).isNotSameAs(cachedOnB);
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("alice");
+        return user;
+    }
+}
@@ -0,0 +1,84 @@
+package com.bitesharing.service;
+
+import com.bitesharing.dto.VolunteerPosition;
+import com.bitesharing.model.User;
+import com.bitesharing.repository.RequestRepository;
+import com.bitesharing.repository.TrackingRepository;
+import com.bitesharing.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class VolunteerDispatchServiceTest {
+
+    private static final double HOME_LAT = 18.52;
+    private static final double HOME_LON = 73.85;
+    private static final double LIVE_LAT = 18.60;
+    private static final double LIVE_LON = 73.90;
+
+    private VolunteerDispatchService dispatch;
+    private User volunteer;
+
+    @BeforeEach
+    void setUp() {
+        dispatch = new VolunteerDispatchService(mock(UserRepository.class), mock(RequestRepository.class),
+                mock(TrackingRepository.class), true, 15, 25, 2.0, 5, 60, 0.02);
+        volunteer = new User();
+        volunteer.setId(7L);
+        volunteer.setUserType(User.UserType.VOLUNTEER);
+        volunteer.setStatus(User.UserStatus.APPROVED);
+        volunteer.setLatitude(HOME_LAT);
+        volunteer.setLongitude(HOME_LON);
+        dispatch.onVolunteerStatusChanged(volunteer);
+        dispatch.updatePosition(7L, LIVE_LAT, LIVE_LON);
+    }
+
+    @Test
+    void profileSaveWithTheSameHomeKeepsTheLivePosition() {
+        volunteer.setFullName("Renamed Volunteer");
+
+        dispatch.onVolunteerUpdated(volunteer);
+
+        assertThat(dispatch.getPosition(7L)).contains(new VolunteerPosition(7L, LIVE_LAT, LIVE_LON));
+    }
+
+    @Test
+    void movedHomeReplacesThePositionUntilTheNextFix() {
+        volunteer.setLatitude(18.55);
+        volunteer.setLongitude(73.80);
+
+        dispatch.onVolunteerUpdated(volunteer);
+        assertThat(dispatch.getPosition(7L)).contains(new VolunteerPosition(7L, 18.55, 73.80));
+
+        dispatch.updatePosition(7L, LIVE_LAT, LIVE_LON);
+        dispatch.onVolunteerUpdated(volunteer);
+        assertThat(dispatch.getPosition(7L)).contains(new VolunteerPosition(7L, LIVE_LAT, LIVE_LON));
+    }
+
+    @Test
+    void clearedHomeDropsOnlyAPositionThatCameFromIt() {
+        volunteer.setLatitude(null);
+        volunteer.setLongitude(null);
+        dispatch.onVolunteerUpdated(volunteer);
+        assertThat(dispatch.getPosition(7L)).contains(new VolunteerPosition(7L, LIVE_LAT, LIVE_LON));
+
+        volunteer.setLatitude(HOME_LAT);
+        volunteer.setLongitude(HOME_LON);
+        dispatch.onVolunteerUpdated(volunteer);
+        volunteer.setLatitude(null);
+        volunteer.setLongitude(null);
+        dispatch.onVolunteerUpdated(volunteer);
+        assertThat(dispatch.getPosition(7L)).isEmpty();
+    }
+
+    @Test
+    void volunteerWhoIsNoLongerApprovedLeavesDispatch() {
+        volunteer.setStatus(User.UserStatus.REJECTED);
+
+        dispatch.onVolunteerUpdated(volunteer);
+
+        assertThat(dispatch.getPosition(7L)).isEmpty();
+    }
+}
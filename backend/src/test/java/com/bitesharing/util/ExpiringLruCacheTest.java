@@ -0,0 +1,101 @@
+package com.bitesharing.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExpiringLruCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedEntryOnceFull() {
+        ExpiringLruCache<String, Integer> cache = new ExpiringLruCache<>(2, 60_000);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        // Reading "a" makes "b" the eldest
+        assertThat(cache.get("a")).isEqualTo(1);
+        cache.put("c", 3);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.evictions()).isEqualTo(1);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("c")).isEqualTo(3);
+    }
+
+    @Test
+    void entriesExpireAfterTtl() throws InterruptedException {
+        ExpiringLruCache<String, Integer> cache = new ExpiringLruCache<>(10, 50);
+        cache.put("a", 1);
+        assertThat(cache.get("a")).isEqualTo(1);
+
+        Thread.sleep(120);
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void perEntryTtlIsCappedByCacheTtl() throws InterruptedException {
+        ExpiringLruCache<String, Integer> cache = new ExpiringLruCache<>(10, 50);
+        cache.put("long", 1, 60_000);
+        cache.put("none", 2, 0);
+        cache.put("negative", 3, -5);
+
+        assertThat(cache.size()).isEqualTo(1);
+        Thread.sleep(120);
+        assertThat(cache.get("long")).isNull();
+    }
+
+    @Test
+    void shorterPerEntryTtlExpiresFirst() throws InterruptedException {
+        ExpiringLruCache<String, Integer> cache = new ExpiringLruCache<>(10, 60_000);
+        cache.put("short", 1, 50);
+        cache.put("default", 2);
+
+        Thread.sleep(120);
+
+        assertThat(cache.get("short")).isNull();
+        assertThat(cache.get("default")).isEqualTo(2);
+    }
+
+    @Test
+    void removeIfDropsMatchingEntries() {
+        ExpiringLruCache<String, Integer> cache = new ExpiringLruCache<>(10, 60_000);
+        for (int i = 0; i < 6; i++) {
+            cache.put("k" + i, i);
+        }
+        cache.removeIf((key, value) -> value % 2 == 0);
+        cache.remove("k1");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("k3")).isEqualTo(3);
+        assertThat(cache.get("k5")).isEqualTo(5);
+        assertThat(cache.get("k0")).isNull();
+
+        cache.clear();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        ExpiringLruCache<String, Integer> cache = new ExpiringLruCache<>(10, 60_000);
+        assertThat(cache.hitRatio()).isZero();
+
+        cache.put("a", 1);
+        cache.get("a");
+        cache.get("a");
+        cache.get("a");
+        cache.get("missing");
+
+        assertThat(cache.hits()).isEqualTo(3);
+        assertThat(cache.misses()).isEqualTo(1);
+        assertThat(cache.hitRatio()).isEqualTo(0.75);
+    }
+
+    @Test
+    void rejectsNonPositiveBounds() {
+        assertThatThrownBy(() -> new ExpiringLruCache<>(0, 1000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ExpiringLruCache<>(10, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
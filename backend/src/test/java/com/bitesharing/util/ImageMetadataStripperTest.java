@@ -0,0 +1,86 @@
+package com.bitesharing.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageMetadataStripperTest {
+
+    @Test
+    void jpegLosesExifXmpAndCommentsButKeepsOrientationAndPixels() throws IOException {
+        byte[] photo = TestImages.jpegWithMetadata(32, 16, 6);
+
+        byte[] stripped = ImageMetadataStripper.strip(photo);
+
+        String text = new String(stripped, StandardCharsets.ISO_8859_1);
+        assertThat(text).doesNotContain("secret");
+        assertThat(text).contains("Exif");
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(stripped));
+        assertThat(decoded.getWidth()).isEqualTo(32);
+        assertThat(decoded.getHeight()).isEqualTo(16);
+        // Stripping is idempotent: the synthesized orientation segment survives a second pass unchanged
+        assertThat(ImageMetadataStripper.strip(stripped)).isEqualTo(stripped);
+    }
+
+    @Test
+    void uprightJpegGetsNoExifSegment() throws IOException {
+        byte[] stripped = ImageMetadataStripper.strip(TestImages.jpegWithMetadata(8, 8, 1));
+
+        assertThat(new String(stripped, StandardCharsets.ISO_8859_1)).doesNotContain("Exif");
+    }
+
+    @Test
+    void pngLosesTextChunks() throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB), "png", encoded);
+        byte[] plain = encoded.toByteArray();
+        // Insert a tEXt chunk right after IHDR (8-byte signature + 25-byte IHDR chunk)
+        ByteArrayOutputStream tagged = new ByteArrayOutputStream();
+        tagged.write(plain, 0, 33);
+        tagged.writeBytes(pngChunk("tEXt", "Comment\0secret-location"));
+        tagged.write(plain, 33, plain.length - 33);
+
+        byte[] stripped = ImageMetadataStripper.strip(tagged.toByteArray());
+
+        assertThat(stripped).isEqualTo(plain);
+    }
+
+    @Test
+    void unknownOrTruncatedImagesAreRefused() throws IOException {
+        byte[] photo = TestImages.jpegWithMetadata(8, 8, 6);
+
+        assertThat(ImageMetadataStripper.strip("not an image".getBytes(StandardCharsets.US_ASCII))).isNull();
+        assertThat(ImageMetadataStripper.strip(Arrays.copyOf(photo, 40))).isNull();
+        assertThat(ImageMetadataStripper.strip(new byte[0])).isNull();
+    }
+
+    private static byte[] pngChunk(String type, String data) {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        byte[] dataBytes = data.getBytes(StandardCharsets.ISO_8859_1);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(dataBytes);
+        ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+        writeInt(chunk, dataBytes.length);
+        chunk.writeBytes(typeBytes);
+        chunk.writeBytes(dataBytes);
+        writeInt(chunk, (int) crc.getValue());
+        return chunk.toByteArray();
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+}
@@ -0,0 +1,82 @@
+package com.bitesharing.util;
+
+import com.bitesharing.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "test-secret-that-is-at-least-thirty-two-bytes-long";
+    private static final String OTHER_SECRET = "another-secret-that-is-at-least-thirty-two-bytes";
+
+    @Test
+    void verifiesSubjectAndRole() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000L, 100, 60_000);
+
+        Optional<JwtUtil.VerifiedToken> verified = jwtUtil.verify(jwtUtil.generateToken(user("alice")));
+
+        assertThat(verified).contains(new JwtUtil.VerifiedToken("alice", "VOLUNTEER"));
+    }
+
+    @Test
+    void repeatedVerifyIsServedFromCache() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000L, 100, 60_000);
+        String token = jwtUtil.generateToken(user("alice"));
+
+        JwtUtil.VerifiedToken first = jwtUtil.verify(token).orElseThrow();
+        JwtUtil.VerifiedToken second = jwtUtil.verify(token).orElseThrow();
+
+        // A parse builds a new record; only a cache hit hands back the same instance
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void cacheEntryLapsesAfterCacheTtl() throws InterruptedException {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000L, 100, 50);
+        String token = jwtUtil.generateToken(user("alice"));
+        JwtUtil.VerifiedToken first = jwtUtil.verify(token).orElseThrow();
+
+        Thread.sleep(120);
+
+        JwtUtil.VerifiedToken second = jwtUtil.verify(token).orElseThrow();
+        assertThat(second).isEqualTo(first).isNotSameAs(first);
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceExpired() throws InterruptedException {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 1_500L, 100, 60_000);
+        String token = jwtUtil.generateToken(user("alice"));
+        assertThat(jwtUtil.verify(token)).isPresent();
+
+        // Token expiry has second precision, so wait for the expiry the token actually carries
+        long expiresAt = jwtUtil.extractExpiration(token).getTime();
+        Thread.sleep(Math.max(0, expiresAt - System.currentTimeMillis()) + 100);
+
+        assertThat(jwtUtil.verify(token)).isEmpty();
+    }
+
+    @Test
+    void rejectsTamperedAndForeignTokens() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000L, 100, 60_000);
+        String token = jwtUtil.generateToken(user("alice"));
+        // Flip the first signature character; the last one partly encodes padding bits
+        int signature = token.lastIndexOf('.') + 1;
+        char first = token.charAt(signature);
+        String tampered = token.substring(0, signature) + (first == 'A' ? 'B' : 'A') + token.substring(signature + 1);
+        String foreign = new JwtUtil(OTHER_SECRET, 60_000L, 100, 60_000).generateToken(user("alice"));
+
+        assertThat(jwtUtil.verify(tampered)).isEmpty();
+        assertThat(jwtUtil.verify(foreign)).isEmpty();
+        assertThat(jwtUtil.verify("not-a-jwt")).isEmpty();
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setUserType(User.UserType.VOLUNTEER);
+        return user;
+    }
+}
@@ -0,0 +1,129 @@
+package com.bitesharing.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankTreeTest {
+
+    private static final Comparator<long[]> RANK_ORDER =
+            Comparator.<long[]>comparingLong(entry -> -entry[1]).thenComparingLong(entry -> entry[0]);
+
+    @Test
+    void tiesAreRankedByIdAscending() {
+        RankTree tree = new RankTree();
+        tree.put(3, 10);
+        tree.put(1, 10);
+        tree.put(2, 20);
+
+        assertThat(tree.range(0, 10)).containsExactly(
+                new RankTree.Ranked(2, 20, 1), new RankTree.Ranked(1, 10, 2), new RankTree.Ranked(3, 10, 3));
+        assertThat(tree.rank(3)).isEqualTo(3);
+    }
+
+    @Test
+    void rangeBeyondTheEndIsEmpty() {
+        RankTree tree = new RankTree();
+        tree.put(1, 5);
+        tree.put(2, 6);
+
+        assertThat(tree.range(2, 5)).isEmpty();
+        assertThat(tree.range(7, 5)).isEmpty();
+        assertThat(tree.range(1, 5)).containsExactly(new RankTree.Ranked(1, 5, 2));
+        assertThat(new RankTree().range(0, 5)).isEmpty();
+    }
+
+    @Test
+    void raiseKeepsTheHighestTotalWhateverTheOrder() {
+        RankTree tree = new RankTree();
+        tree.raise(1, 30);
+        tree.raise(1, 20);
+        tree.raise(2, 25);
+
+        assertThat(tree.range(0, 2)).containsExactly(new RankTree.Ranked(1, 30, 1), new RankTree.Ranked(2, 25, 2));
+
+        tree.raise(2, 40);
+        assertThat(tree.rank(2)).isEqualTo(1);
+        assertThat(tree.size()).isEqualTo(2);
+    }
+
+    @Test
+    void randomOperationsMatchASortedListOracle() {
+        for (int seed = 0; seed < 200; seed++) {
+            Random random = new Random(seed);
+            RankTree tree = new RankTree();
+            Map<Long, Long> oracle = new HashMap<>();
+
+            for (int step = 0; step < 300; step++) {
+                // Few ids and scores, so re-puts, equal scores and removals of absent ids are common
+                long id = random.nextInt(40);
+                long score = random.nextInt(15);
+                int op = random.nextInt(10);
+                if (op < 5) {
+                    tree.put(id, score);
+                    oracle.put(id, score);
+                } else if (op < 6 && oracle.containsKey(id)) {
+                    tree.put(id, oracle.get(id));
+                } else if (op < 7) {
+                    tree.raise(id, score);
+                    oracle.merge(id, score, Math::max);
+                } else if (op < 9) {
+                    tree.remove(id);
+                    oracle.remove(id);
+                } else if (random.nextInt(20) == 0) {
+                    reload(tree, oracle, random);
+                }
+                assertMatches(tree, oracle, random, seed, step);
+            }
+        }
+    }
+
+    private static void reload(RankTree tree, Map<Long, Long> oracle, Random random) {
+        List<long[]> entries = sorted(oracle);
+        // Exercise both the in-order and the sorting load paths
+        if (random.nextBoolean()) {
+            Collections.shuffle(entries, random);
+        }
+        long[] ids = new long[entries.size()];
+        long[] scores = new long[entries.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = entries.get(i)[0];
+            scores[i] = entries.get(i)[1];
+        }
+        tree.load(ids, scores);
+    }
+
+    private static void assertMatches(RankTree tree, Map<Long, Long> oracle, Random random, int seed, int step) {
+        List<long[]> expected = sorted(oracle);
+        assertThat(tree.size()).as("seed %d step %d size", seed, step).isEqualTo(expected.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(tree.rank(expected.get(i)[0])).as("seed %d step %d rank", seed, step).isEqualTo(i + 1);
+        }
+        assertThat(tree.rank(1_000)).isEqualTo(-1);
+
+        int offset = random.nextInt(expected.size() + 5);
+        int limit = random.nextInt(12);
+        List<RankTree.Ranked> page = new ArrayList<>();
+        for (int i = offset; i < Math.min(expected.size(), offset + limit); i++) {
+            page.add(new RankTree.Ranked(expected.get(i)[0], expected.get(i)[1], i + 1));
+        }
+        assertThat(tree.range(offset, limit)).as("seed %d step %d range(%d, %d)", seed, step, offset, limit)
+                .isEqualTo(page);
+    }
+
+    private static List<long[]> sorted(Map<Long, Long> oracle) {
+        List<long[]> entries = new ArrayList<>();
+        oracle.forEach((id, score) -> entries.add(new long[]{id, score}));
+        entries.sort(RANK_ORDER);
+        return entries;
+    }
+}
@@ -0,0 +1,127 @@
+package com.bitesharing.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RoutePlannerTest {
+
+    private static final double START_LAT = 18.60;
+    private static final double START_LON = 73.90;
+
+    @Test
+    void emptyRouteHasNoStops() {
+        assertThat(RoutePlanner.order(START_LAT, START_LON, new double[0], new double[0])).isEmpty();
+    }
+
+    @Test
+    void collinearStopsAreVisitedOutward() {
+        double[] latitudes = {START_LAT, START_LAT, START_LAT, START_LAT};
+        double[] longitudes = {73.94, 73.91, 73.96, 73.92};
+
+        assertThat(RoutePlanner.order(START_LAT, START_LON, latitudes, longitudes)).containsExactly(1, 3, 0, 2);
+    }
+
+    @Test
+    void smallRoutesMatchBruteForceOptimum() {
+        for (int seed = 0; seed < 500; seed++) {
+            Random random = new Random(seed);
+            int n = 1 + random.nextInt(8);
+            double[] latitudes = new double[n];
+            double[] longitudes = new double[n];
+            for (int i = 0; i < n; i++) {
+                latitudes[i] = 18.50 + random.nextDouble() * 0.2;
+                longitudes[i] = 73.80 + random.nextDouble() * 0.2;
+            }
+
+            int[] order = RoutePlanner.order(START_LAT, START_LON, latitudes, longitudes);
+
+            assertThat(sorted(order)).as("seed %d visits every stop once", seed)
+                    .isEqualTo(IntStream.range(0, n).toArray());
+            assertThat(length(order, latitudes, longitudes))
+                    .as("seed %d", seed)
+                    .isCloseTo(bruteForceOptimum(latitudes, longitudes), within(1e-9));
+        }
+    }
+
+    @Test
+    void largeRoutesStillVisitEveryStopOnce() {
+        Random random = new Random(42);
+        int n = RoutePlanner.EXACT_LIMIT * 4;
+        double[] latitudes = random.doubles(n, 18.50, 18.70).toArray();
+        double[] longitudes = random.doubles(n, 73.80, 74.00).toArray();
+
+        int[] order = RoutePlanner.order(START_LAT, START_LON, latitudes, longitudes);
+
+        assertThat(sorted(order)).isEqualTo(IntStream.range(0, n).toArray());
+    }
+
+    @Test
+    void sixtyStopRouteIsPlannedWellWithinBudget() {
+        Random random = new Random(60);
+        double[] latitudes = random.doubles(60, 18.50, 18.70).toArray();
+        double[] longitudes = random.doubles(60, 73.80, 74.00).toArray();
+        for (int i = 0; i < 3; i++) {
+            RoutePlanner.order(START_LAT, START_LON, latitudes, longitudes);
+        }
+
+        long[] nanos = new long[5];
+        for (int i = 0; i < nanos.length; i++) {
+            long started = System.nanoTime();
+            RoutePlanner.order(START_LAT, START_LON, latitudes, longitudes);
+            nanos[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(nanos);
+
+        // The budget is 100 ms; a plan takes around a millisecond, so half the budget is a wide margin
+        assertThat(Duration.ofNanos(nanos[nanos.length / 2])).isLessThan(Duration.ofMillis(50));
+    }
+
+    private static int[] sorted(int[] order) {
+        int[] copy = order.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static double length(int[] order, double[] latitudes, double[] longitudes) {
+        double total = 0;
+        double lat = START_LAT;
+        double lon = START_LON;
+        for (int stop : order) {
+            total += GeoUtils.haversineKm(lat, lon, latitudes[stop], longitudes[stop]);
+            lat = latitudes[stop];
+            lon = longitudes[stop];
+        }
+        return total;
+    }
+
+    private static double bruteForceOptimum(double[] latitudes, double[] longitudes) {
+        int[] permutation = IntStream.range(0, latitudes.length).toArray();
+        return permute(permutation, 0, latitudes, longitudes);
+    }
+
+    private static double permute(int[] permutation, int from, double[] latitudes, double[] longitudes) {
+        if (from == permutation.length) {
+            return length(permutation, latitudes, longitudes);
+        }
+        double best = Double.MAX_VALUE;
+        for (int i = from; i < permutation.length; i++) {
+            swap(permutation, from, i);
+            best = Math.min(best, permute(permutation, from + 1, latitudes, longitudes));
+            swap(permutation, from, i);
+        }
+        return best;
+    }
+
+    private static void swap(int[] values, int i, int j) {
+        int tmp = values[i];
+        values[i] = values[j];
+        values[j] = tmp;
+    }
+}
@@ -0,0 +1,59 @@
+package com.bitesharing.util;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Camera-style JPEGs for tests: an EXIF segment with an orientation and a GPS block, an XMP packet
+ * and a comment, each carrying a "secret" marker that must not survive stripping.
+ */
+public final class TestImages {
+
+    private TestImages() {
+    }
+
+    public static byte[] jpegWithMetadata(int width, int height, int orientation) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpg", encoded);
+        byte[] plain = encoded.toByteArray();
+
+        ByteArrayOutputStream exif = new ByteArrayOutputStream();
+        exif.writeBytes("Exif\0\0".getBytes(StandardCharsets.ISO_8859_1));
+        exif.writeBytes(new byte[]{
+                'M', 'M', 0, 42, 0, 0, 0, 8,
+                // IFD0: Orientation, and a pointer to the GPS IFD at offset 38
+                0, 2,
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0,
+                (byte) 0x88, 0x25, 0, 4, 0, 0, 0, 1, 0, 0, 0, 38,
+                0, 0, 0, 0,
+                // GPS IFD: one ASCII entry whose 11-byte value sits at offset 56
+                0, 1,
+                0, 2, 0, 2, 0, 0, 0, 11, 0, 0, 0, 56,
+                0, 0, 0, 0
+        });
+        exif.writeBytes("secret-gps\0".getBytes(StandardCharsets.ISO_8859_1));
+
+        ByteArrayOutputStream photo = new ByteArrayOutputStream();
+        photo.write(0xFF);
+        photo.write(0xD8);
+        photo.writeBytes(segment(0xE1, exif.toByteArray()));
+        photo.writeBytes(segment(0xE1, "http://ns.adobe.com/xap/1.0/\0<x:xmpmeta>secret-xmp</x:xmpmeta>"
+                .getBytes(StandardCharsets.ISO_8859_1)));
+        photo.writeBytes(segment(0xFE, "secret-comment".getBytes(StandardCharsets.ISO_8859_1)));
+        photo.write(plain, 2, plain.length - 2);
+        return photo.toByteArray();
+    }
+
+    private static byte[] segment(int marker, byte[] data) {
+        ByteArrayOutputStream segment = new ByteArrayOutputStream();
+        segment.write(0xFF);
+        segment.write(marker);
+        segment.write((data.length + 2) >> 8);
+        segment.write((data.length + 2) & 0xFF);
+        segment.writeBytes(data);
+        return segment.toByteArray();
+    }
+}
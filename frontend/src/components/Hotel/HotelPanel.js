@@ -34,6 +34,12 @@ const donationTypes = [
   { value: 'COMPOST', label: 'Compost' },
 ];
 
+// Uploaded photos have resized variants; the table only needs the thumbnail
+const thumbnailUrl = (photoUrl) => {
+  const url = photoUrl.startsWith('http') ? photoUrl : `http://localhost:8080${photoUrl}`;
+  return url.includes('/api/files/') && !url.includes('?') ? `${url}?size=thumbnail` : url;
+};
+
 const HotelPanel = ({ darkMode, setDarkMode }) => {
   const { user } = useAuth();
   const [donations, setDonations] = useState([]);
@@ -368,7 +374,7 @@ const HotelPanel = ({ darkMode, setDarkMode }) => {
                     {donation.photoUrl && (
                       <Box
                         component="img"
-                        src={donation.photoUrl.startsWith('http') ? donation.photoUrl : `http://localhost:8080${donation.photoUrl}`}
+                        src={thumbnailUrl(donation.photoUrl)}
                         alt={donation.foodName}
                         sx={{
                           width: 60,
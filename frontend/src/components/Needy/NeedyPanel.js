@@ -30,6 +30,9 @@ import PanelLayout from '../Layout/PanelLayout';
 import StatCard from '../Common/StatCard';
 import { useAuth } from '../../context/AuthContext';
 
+// Matches the server's per-request limit on /freshness/summaries
+const FRESHNESS_BATCH_SIZE = 200;
+
 const NeedyPanel = ({ darkMode, setDarkMode }) => {
   const { user } = useAuth();
   const { enqueueSnackbar } = useSnackbar();
@@ -46,10 +49,7 @@ const NeedyPanel = ({ darkMode, setDarkMode }) => {
   }, [user]);
 
   useEffect(() => {
-    // Load freshness ratings for all donations
-    availableDonations.forEach(donation => {
-      loadFreshnessRating(donation.id);
-    });
+    loadFreshnessRatings(availableDonations.map(donation => donation.id));
   }, [availableDonations]);
 
   const loadAvailableDonations = async () => {
@@ -76,6 +76,32 @@ const NeedyPanel = ({ darkMode, setDarkMode }) => {
     }
   };
 
+  // One batch call per page of cards instead of one summary call per card
+  const loadFreshnessRatings = async (ids) => {
+    if (ids.length === 0) {
+      return;
+    }
+    const chunks = [];
+    for (let i = 0; i < ids.length; i += FRESHNESS_BATCH_SIZE) {
+      chunks.push(ids.slice(i, i + FRESHNESS_BATCH_SIZE));
+    }
+    try {
+      const responses = await Promise.all(chunks.map(chunk =>
+        api.get('/freshness/summaries', { params: { donationIds: chunk.join(',') } })
+      ));
+      const summaries = {};
+      responses.forEach(response => {
+        (response.data || []).forEach(summary => {
+          summaries[summary.donationId] = summary;
+        });
+      });
+      setFreshnessRatings(summaries);
+    } catch (err) {
+      console.error('Error loading freshness ratings:', err);
+      // Don't show error, just leave them empty
+    }
+  };
+
   const loadFreshnessRating = async (donationId) => {
     try {
       const response = await api.get(`/freshness/donation/${donationId}/summary`);
@@ -146,10 +172,11 @@ const NeedyPanel = ({ darkMode, setDarkMode }) => {
     }
   };
 
-  const getImageUrl = (photoUrl) => {
+  const getImageUrl = (photoUrl, size = 'thumbnail') => {
     if (!photoUrl) return null;
-    if (photoUrl.startsWith('http')) return photoUrl;
-    return `http://localhost:8080${photoUrl}`;
+    const url = photoUrl.startsWith('http') ? photoUrl : `http://localhost:8080${photoUrl}`;
+    // Uploaded photos have resized variants; list cards never need the full camera image
+    return url.includes('/api/files/') && !url.includes('?') ? `${url}?size=${size}` : url;
   };
 
   return (